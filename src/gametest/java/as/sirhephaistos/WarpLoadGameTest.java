@@ -0,0 +1,389 @@
+package as.sirhephaistos;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import com.mojang.brigadier.CommandDispatcher;
+import me.lucko.fabric.api.permissions.v0.PermissionCheckEvent;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.fabricmc.fabric.api.gametest.v1.FabricGameTest;
+import net.fabricmc.fabric.api.util.TriState;
+import net.minecraft.command.CommandSource;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.test.GameTest;
+import net.minecraft.test.TestContext;
+import net.minecraft.world.World;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * End-to-end load harness for the command paths, run headless and offline with ./gradlew runGametest.
+ * Spawns mock players, seeds warps over the overworld, the nether and the end, then fires a seeded mix of /warp,
+ * /warps, tab completion and /setwarp through the server's dispatcher, so parsing, permission checks, chunk tickets
+ * and cross-dimension teleports are all part of the measurement.
+ * Most players are not operators: they hold a seeded set of command, group and per-warp see/tpto grants, answered
+ * through the permission API as a permission mod would, so the permission cache does its real work.
+ * A smaller share runs at operator level and is measured separately.
+ * Per-command latency percentiles and the tick time before and during the load are logged and written to
+ * loadtest-report.json in the run directory, so two builds can be compared with the same seed.
+ * Sizes come from system properties: simplybetter.loadtest.players, .opPercent, .warps, .commandsPerTick, .loadTicks
+ * and .seed.
+ */
+public final class WarpLoadGameTest implements FabricGameTest {
+    private static final Logger LOGGER = LoggerFactory.getLogger("simplybetter-warps");
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    private static final int PLAYERS = Integer.getInteger("simplybetter.loadtest.players", 50);
+    private static final int OP_PERCENT = Integer.getInteger("simplybetter.loadtest.opPercent", 10);
+    private static final int WARPS = Integer.getInteger("simplybetter.loadtest.warps", 3000);
+    private static final int COMMANDS_PER_TICK = Integer.getInteger("simplybetter.loadtest.commandsPerTick", 20);
+    private static final int LOAD_TICKS = Integer.getInteger("simplybetter.loadtest.loadTicks", 20 * 60);
+    private static final long SEED = Long.getLong("simplybetter.loadtest.seed", 42);
+    /**
+     * Idle ticks measured before the load starts, for the baseline tick time.
+     */
+    private static final int BASELINE_TICKS = 100;
+    /**
+     * Ticks the queued teleports get to finish once the load has stopped.
+     */
+    private static final int DRAIN_TICKS = 20 * 30;
+    /**
+     * Warps are placed within this many blocks of 0,0 in every dimension.
+     */
+    private static final int SPREAD = 2_000;
+    /**
+     * Ticks the run may take beyond its baseline, load and drain phases before it is failed.
+     */
+    private static final int MARGIN_TICKS = 20 * 60;
+    /**
+     * Upper bound for the whole run, following the load length set with the properties above.
+     */
+    private static final int RUN_TICK_LIMIT = BASELINE_TICKS + LOAD_TICKS + DRAIN_TICKS + MARGIN_TICKS;
+    /**
+     * Limit given to the test framework, which only takes a compile-time constant; {@link #RUN_TICK_LIMIT} is enforced
+     * by the test itself, so this is set far beyond any run (one day).
+     */
+    private static final int FRAMEWORK_TICK_LIMIT = 20 * 60 * 60 * 24;
+    private static final String PREFIX = "loadtest_";
+    /**
+     * Groups every other seeded warp is spread over.
+     */
+    private static final int GROUPS = 8;
+    /**
+     * Share of the warps, in percent, a non-op player holds its own see and tpto nodes for; a quarter of them deny.
+     */
+    private static final int WARP_GRANT_PERCENT = 5;
+    /**
+     * Command nodes every non-op player holds, as a default permission group would give them.
+     */
+    private static final List<String> COMMAND_NODES = List.of(
+            "simplybetter.warps.basic", "simplybetter.warps.warpto", "simplybetter.warps.setwarp");
+    private static final Path REPORT = Path.of("loadtest-report.json");
+    private static boolean hooked;
+    /**
+     * The run in progress, driven by the tick events.
+     */
+    private static LoadRun current;
+
+    @GameTest(templateName = EMPTY_STRUCTURE, tickLimit = FRAMEWORK_TICK_LIMIT)
+    public void commandMix(TestContext context) {
+        if (!hooked) {
+            hooked = true;
+            ServerTickEvents.START_SERVER_TICK.register(server -> {
+                if (current != null) current.tickStart();
+            });
+            ServerTickEvents.END_SERVER_TICK.register(server -> {
+                if (current != null) current.tickEnd();
+            });
+            PermissionCheckEvent.EVENT.register((source, permission) -> {
+                LoadRun run = current;
+                return run == null ? TriState.DEFAULT : run.permission(source, permission);
+            });
+            // as LuckPerms lists them, so per-warp overrides of grouped warps are exercised too
+            WarpPermissionCache.get().setExplicitNodes(player -> {
+                LoadRun run = current;
+                return run == null ? null : run.explicitNodes(player);
+            });
+        }
+        LoadRun run = new LoadRun(context);
+        current = run;
+        context.waitAndRun(RUN_TICK_LIMIT, () -> {
+            if (current == run) run.finish(true);
+        });
+    }
+
+    /**
+     * Commands in the mix, with their share of it in percent.
+     */
+    private enum Kind {
+        WARP(60),
+        LIST(15),
+        SUGGEST(15),
+        SETWARP(10);
+
+        final int weight;
+
+        Kind(int weight) {
+            this.weight = weight;
+        }
+
+        static Kind pick(SplittableRandom random) {
+            int roll = random.nextInt(100);
+            for (Kind kind : values()) {
+                roll -= kind.weight;
+                if (roll < 0) return kind;
+            }
+            return WARP;
+        }
+    }
+
+    private static final class LoadRun {
+        private final TestContext context;
+        private final MinecraftServer server;
+        private final CommandDispatcher<ServerCommandSource> dispatcher;
+        private final SplittableRandom random = new SplittableRandom(SEED);
+        private final List<String> names = new ArrayList<>();
+        /**
+         * Operators first, then the other players.
+         */
+        private final List<ServerPlayerEntity> players = new ArrayList<>();
+        private final int ops;
+        /**
+         * Map<playerUuid, Map<node, value>> for the non-op players.
+         */
+        private final Map<UUID, Map<String, TriState>> grants = new HashMap<>();
+        private final Map<Kind, LatencyHistogram> opLatencies = new EnumMap<>(Kind.class);
+        private final Map<Kind, LatencyHistogram> playerLatencies = new EnumMap<>(Kind.class);
+        private final LatencyHistogram idleTicks = new LatencyHistogram();
+        private final LatencyHistogram loadTicks = new LatencyHistogram();
+        private final long teleportsBefore;
+        private int tick;
+        private int drained;
+        private int created;
+        private long tickStartNanos;
+
+        LoadRun(TestContext context) {
+            this.context = context;
+            this.server = context.getWorld().getServer();
+            this.dispatcher = server.getCommandManager().getDispatcher();
+            for (Kind kind : Kind.values()) {
+                opLatencies.put(kind, new LatencyHistogram());
+                playerLatencies.put(kind, new LatencyHistogram());
+            }
+            seedWarps();
+            ops = Math.max(0, Math.min(PLAYERS, PLAYERS * OP_PERCENT / 100));
+            for (int i = 0; i < PLAYERS; i++) {
+                ServerPlayerEntity player = context.createMockCreativeServerPlayerInWorld();
+                players.add(player);
+                if (i >= ops) grants.put(player.getUuid(), seedGrants());
+            }
+            teleportsBefore = WarpMetrics.get().count(WarpMetrics.Counter.TELEPORTS);
+            LOGGER.info("[Simply Better Warps] Load test: {} players ({} operators), {} warps, {} commands per tick for {} ticks, seed {}",
+                    PLAYERS, ops, WARPS, COMMANDS_PER_TICK, LOAD_TICKS, SEED);
+        }
+
+        private void seedWarps() {
+            WarpDimension[] dimensions = {
+                    WarpDimension.of(World.OVERWORLD), WarpDimension.of(World.NETHER), WarpDimension.of(World.END)};
+            Map<String, WarpPoint> warps = new HashMap<>(WARPS * 2);
+            for (int i = 0; i < WARPS; i++) {
+                String name = PREFIX + Integer.toString(i, 36);
+                names.add(name);
+                warps.put(name, new WarpPoint(dimensions[i % dimensions.length],
+                        random.nextInt(-SPREAD, SPREAD) + 0.5, 100, random.nextInt(-SPREAD, SPREAD) + 0.5, 0, 0,
+                        i % 2 == 0 ? group(i / 2 % GROUPS) : null));
+            }
+            WarpManager.get().setWarps(warps);
+        }
+
+        private static String group(int index) {
+            return PREFIX + "g" + index;
+        }
+
+        /**
+         * Grants of one non-op player: the command nodes, about half of the groups (seeing one does not always allow
+         * teleporting to it) and a few warps of their own, some denied to override their group.
+         */
+        private Map<String, TriState> seedGrants() {
+            Map<String, TriState> held = new HashMap<>();
+            COMMAND_NODES.forEach(node -> held.put(node, TriState.TRUE));
+            for (int g = 0; g < GROUPS; g++) {
+                if (random.nextBoolean()) {
+                    String node = WarpPermissionCache.GROUP_NODE + "." + group(g);
+                    held.put(node + ".see", TriState.TRUE);
+                    if (random.nextInt(4) != 0) held.put(node + ".tpto", TriState.TRUE);
+                }
+            }
+            for (String name : names) {
+                if (random.nextInt(100) < WARP_GRANT_PERCENT) {
+                    TriState value = random.nextInt(4) == 0 ? TriState.FALSE : TriState.TRUE;
+                    held.put(WarpPermissionCache.SEE_NODE + "." + name, value);
+                    held.put(WarpPermissionCache.TPTO_NODE + "." + name, value);
+                }
+            }
+            return held;
+        }
+
+        /**
+         * Nodes a non-op player holds, null for operators.
+         */
+        Map<String, Boolean> explicitNodes(UUID player) {
+            Map<String, TriState> held = grants.get(player);
+            if (held == null) return null;
+            Map<String, Boolean> nodes = new HashMap<>();
+            held.forEach((node, value) -> nodes.put(node, value == TriState.TRUE));
+            return nodes;
+        }
+
+        /**
+         * Answers a permission check for a non-op player from their grants; anything else is left to the op level.
+         */
+        TriState permission(CommandSource source, String permission) {
+            if (!(source instanceof ServerCommandSource s) || s.getEntity() == null) return TriState.DEFAULT;
+            Map<String, TriState> held = grants.get(s.getEntity().getUuid());
+            return held == null ? TriState.DEFAULT : held.getOrDefault(permission, TriState.DEFAULT);
+        }
+
+        /**
+         * Fires this tick's commands at the start of the tick, so their cost lands in the measured tick time.
+         */
+        void tickStart() {
+            tickStartNanos = System.nanoTime();
+            if (tick >= BASELINE_TICKS && tick < BASELINE_TICKS + LOAD_TICKS) {
+                for (int i = 0; i < COMMANDS_PER_TICK; i++) {
+                    int index = random.nextInt(players.size());
+                    run(players.get(index), index < ops);
+                }
+            }
+        }
+
+        void tickEnd() {
+            long nanos = System.nanoTime() - tickStartNanos;
+            if (tick < BASELINE_TICKS) {
+                idleTicks.record(nanos);
+            } else if (tick < BASELINE_TICKS + LOAD_TICKS) {
+                loadTicks.record(nanos);
+            } else if (WarpTeleporter.get().pendingCount() == 0 || ++drained >= DRAIN_TICKS) {
+                finish(false);
+                return;
+            }
+            tick++;
+        }
+
+        private void run(ServerPlayerEntity player, boolean op) {
+            // operators are allowed everything and bypass warmups and cooldowns; the others go through their grants
+            ServerCommandSource source = op ? player.getCommandSource().withLevel(4) : player.getCommandSource();
+            Kind kind = Kind.pick(random);
+            String name = names.get(random.nextInt(names.size()));
+            long start = System.nanoTime();
+            switch (kind) {
+                case WARP -> server.getCommandManager().executeWithPrefix(source, "/warp " + name);
+                case LIST -> server.getCommandManager().executeWithPrefix(source,
+                        "/warps " + (1 + random.nextInt(Math.max(1, WARPS / WarpListCache.PAGE_SIZE))));
+                case SUGGEST -> dispatcher.getCompletionSuggestions(
+                        dispatcher.parse("warp " + name.substring(0, Math.min(name.length(), PREFIX.length() + 1)), source)).join();
+                case SETWARP -> server.getCommandManager().executeWithPrefix(source, "/setwarp " + PREFIX + "set_" + created++);
+            }
+            (op ? opLatencies : playerLatencies).get(kind).recordSince(start);
+        }
+
+        /**
+         * Reports and cleans up the run, then passes or fails the test.
+         *
+         * @param timedOut the run was stopped at {@link #RUN_TICK_LIMIT} rather than finishing on its own
+         */
+        private void finish(boolean timedOut) {
+            current = null;
+            long teleports = WarpMetrics.get().count(WarpMetrics.Counter.TELEPORTS) - teleportsBefore;
+            int pending = WarpTeleporter.get().pendingCount();
+            report(teleports, pending);
+
+            players.forEach(server.getPlayerManager()::remove);
+            Set<String> removals = new HashSet<>();
+            for (String name : WarpManager.get().snapshot().warps().keySet()) {
+                if (name.startsWith(PREFIX)) removals.add(name);
+            }
+            WarpManager.get().applyChanges(Map.of(), removals);
+
+            if (timedOut) {
+                context.throwGameTestException("The load test did not finish within " + RUN_TICK_LIMIT + " ticks");
+            } else if (opLatencies.get(Kind.WARP).count() + playerLatencies.get(Kind.WARP).count() > 0 && teleports == 0) {
+                context.throwGameTestException("No teleport completed during the load test");
+            } else if (pending > 0) {
+                context.throwGameTestException(pending + " teleports were still queued " + DRAIN_TICKS + " ticks after the load");
+            } else {
+                context.complete();
+            }
+        }
+
+        private void report(long teleports, int pending) {
+            JsonObject root = new JsonObject();
+            root.addProperty("players", PLAYERS);
+            root.addProperty("operators", ops);
+            root.addProperty("warps", WARPS);
+            root.addProperty("commandsPerTick", COMMANDS_PER_TICK);
+            root.addProperty("loadTicks", LOAD_TICKS);
+            root.addProperty("seed", SEED);
+            root.addProperty("teleports", teleports);
+            root.addProperty("pendingAfterDrain", pending);
+            JsonObject commands = new JsonObject();
+            commands.add("player", rows("player", playerLatencies));
+            commands.add("op", rows("op", opLatencies));
+            root.add("commands", commands);
+            // from /warp to arrival, including chunk loading and the teleport queue
+            root.add("teleport", row("teleport end to end", WarpMetrics.get().timer(WarpMetrics.Timer.TELEPORT)));
+            JsonObject mspt = new JsonObject();
+            mspt.add("idle", row("mspt idle", idleTicks));
+            mspt.add("load", row("mspt load", loadTicks));
+            root.add("mspt", mspt);
+            LOGGER.info("[Simply Better Warps] Load test: {} teleports completed, {} still queued", teleports, pending);
+            try (Writer writer = Files.newBufferedWriter(REPORT)) {
+                GSON.toJson(root, writer);
+                LOGGER.info("[Simply Better Warps] Load test report written to {}", REPORT.toAbsolutePath());
+            } catch (Exception e) {
+                LOGGER.error("[Simply Better Warps] Failed to write the load test report to {}", REPORT, e);
+            }
+        }
+
+        private static JsonObject rows(String role, Map<Kind, LatencyHistogram> latencies) {
+            JsonObject obj = new JsonObject();
+            latencies.forEach((kind, h) -> {
+                String name = kind.name().toLowerCase(Locale.ROOT);
+                obj.add(name, row("command " + name + " (" + role + ")", h));
+            });
+            return obj;
+        }
+
+        /**
+         * Logs one histogram and returns it as a JSON object, in milliseconds.
+         */
+        private static JsonObject row(String label, LatencyHistogram h) {
+            JsonObject obj = new JsonObject();
+            obj.addProperty("count", h.count());
+            obj.addProperty("meanMillis", WarpMetrics.millis(h.meanNanos()));
+            obj.addProperty("p50Millis", WarpMetrics.millis(h.percentileNanos(50)));
+            obj.addProperty("p90Millis", WarpMetrics.millis(h.percentileNanos(90)));
+            obj.addProperty("p99Millis", WarpMetrics.millis(h.percentileNanos(99)));
+            obj.addProperty("maxMillis", WarpMetrics.millis(h.maxNanos()));
+            LOGGER.info("[Simply Better Warps] {}: {} samples, mean {} ms, p50 {} ms, p90 {} ms, p99 {} ms, max {} ms",
+                    label, h.count(), obj.get("meanMillis"), obj.get("p50Millis"), obj.get("p90Millis"),
+                    obj.get("p99Millis"), obj.get("maxMillis"));
+            return obj;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package as.sirhephaistos;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.Predicate;
+
+/**
+ * Deterministic warp catalogs and a stub permission resolver shared by the benchmarks.
+ */
+final class BenchmarkWarps {
+    private static final String[] DIMENSIONS = {"minecraft:overworld", "minecraft:the_nether", "minecraft:the_end"};
+
+    private BenchmarkWarps() {
+    }
+
+    static String name(int i) {
+        return "warp_" + Integer.toString(i, 36);
+    }
+
+    /**
+     * {@code count} warps spread over the three vanilla dimensions, same content for the same count.
+     */
+    static Map<String, WarpPoint> generate(int count) {
+        SplittableRandom random = new SplittableRandom(count);
+        Map<String, WarpPoint> warps = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            warps.put(name(i), new WarpPoint(DIMENSIONS[i % DIMENSIONS.length],
+                    random.nextInt(-30_000, 30_000) + 0.5, random.nextInt(-64, 320), random.nextInt(-30_000, 30_000) + 0.5,
+                    (float) random.nextDouble(-180, 180), (float) random.nextDouble(-90, 90)));
+        }
+        return warps;
+    }
+
+    /**
+     * Stands in for the permission provider: a player who may see roughly three warps out of four.
+     */
+    static Predicate<String> stubPermissions() {
+        return name -> (name.hashCode() & 3) != 0;
+    }
+}
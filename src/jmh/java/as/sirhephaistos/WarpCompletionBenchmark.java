@@ -0,0 +1,77 @@
+package as.sirhephaistos;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Tab completion, /warps name selection and fuzzy search, with a stubbed permission resolver instead of a live server.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class WarpCompletionBenchmark {
+    @Param({"1000", "10000", "100000"})
+    public int warps;
+
+    private WarpNameIndex names;
+    private WarpTrigramIndex trigrams;
+    private WarpSnapshot snapshot;
+    private Predicate<String> canSee;
+
+    @Setup
+    public void setup() {
+        var catalog = BenchmarkWarps.generate(warps);
+        names = WarpNameIndex.of(catalog.keySet());
+        trigrams = new WarpTrigramIndex();
+        snapshot = new WarpSnapshot(1, catalog, names);
+        trigrams.onReload(snapshot);
+        canSee = BenchmarkWarps.stubPermissions();
+    }
+
+    /**
+     * Player pressed tab right after "/warp ".
+     */
+    @Benchmark
+    public List<String> suggestEmptyPrefix() {
+        return WarpCommands.suggestWarpNames(names, "", canSee);
+    }
+
+    /**
+     * Player typed a few characters, narrowing the candidates.
+     */
+    @Benchmark
+    public List<String> suggestTypedPrefix() {
+        return WarpCommands.suggestWarpNames(names, "warp_1a", canSee);
+    }
+
+    @Benchmark
+    public List<String> suggestNoMatch() {
+        return WarpCommands.suggestWarpNames(names, "zzz", canSee);
+    }
+
+    /**
+     * Visible names behind a /warps listing, computed once per registry version and permission profile.
+     */
+    @Benchmark
+    public List<String> listVisible() {
+        return WarpListCache.visibleNames(snapshot, null, null, canSee);
+    }
+
+    /**
+     * Misspelled name, as for /warpsearch or the suggestions after a failed /warp.
+     */
+    @Benchmark
+    public List<WarpTrigramIndex.Match> fuzzySearch() {
+        return trigrams.search("wrap_1a", 15, canSee);
+    }
+}
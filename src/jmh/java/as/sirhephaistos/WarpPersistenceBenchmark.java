@@ -0,0 +1,81 @@
+package as.sirhephaistos;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Full load and save of the warp snapshot in each file format, each run on its own warp directory.
+ * Goes to {@link FileWarpStorage} directly rather than through {@link WarpManager}, which logs and swallows
+ * I/O errors, so a broken format or path fails the run instead of being measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MINUTES)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 20)
+public class WarpPersistenceBenchmark {
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int warps;
+    @Param({"JSON", "BINARY"})
+    public WarpFileFormat format;
+
+    private Path directory;
+    private Map<String, WarpPoint> catalog;
+    private FileWarpStorage storage;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        directory = Files.createTempDirectory("warps-bench");
+        catalog = BenchmarkWarps.generate(warps);
+        storage = new FileWarpStorage(directory, format, () -> catalog);
+        storage.load();
+        storage.save(catalog);
+        int loaded = load().size();
+        if (loaded != warps) {
+            throw new IllegalStateException("Loaded " + loaded + " of " + warps + " warps from " + directory);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        storage.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    /**
+     * Opens a fresh storage on the directory as a server start does: snapshot read, journal replay, then closed.
+     */
+    @Benchmark
+    public Map<String, WarpPoint> load() throws Exception {
+        FileWarpStorage fresh = new FileWarpStorage(directory, format, Map::of);
+        try {
+            return fresh.load();
+        } finally {
+            fresh.close();
+        }
+    }
+
+    @Benchmark
+    public void save() throws Exception {
+        storage.save(catalog);
+    }
+}
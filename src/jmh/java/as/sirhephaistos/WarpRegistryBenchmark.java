@@ -0,0 +1,94 @@
+package as.sirhephaistos;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Registry operations of a FILE-backed {@link WarpManager}, so every change pays its journal append like on a server.
+ * The listeners that do not read the server's own registry are attached; the permission, listing and hot-warp
+ * caches are left out as they look warps up in {@link WarpManager#get()}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class WarpRegistryBenchmark {
+    @Param({"1000", "10000", "100000"})
+    public int warps;
+
+    private Path directory;
+    private WarpManager manager;
+    private WarpPoint point;
+    private int cursor;
+    private boolean renamed;
+
+    @Setup
+    public void setup() throws Exception {
+        directory = Files.createTempDirectory("warps-bench");
+        manager = new WarpManager(directory, WarpStorage.Backend.FILE, WarpFileFormat.BINARY);
+        manager.addListener(WarpSpatialIndex.get());
+        manager.addListener(WarpTrigramIndex.get());
+        manager.addListener(WarpGroups.get());
+        manager.load();
+        // load() logs and swallows failures, which would leave a storage-less registry being measured
+        if (manager.storage() == null) {
+            throw new IllegalStateException("Failed to load warps from " + directory);
+        }
+        Map<String, WarpPoint> catalog = BenchmarkWarps.generate(warps);
+        manager.setWarps(catalog);
+        point = catalog.get(BenchmarkWarps.name(0));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        manager.shutdown();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public void setWarpOverwrite() {
+        manager.setWarp(BenchmarkWarps.name(nextIndex()), point);
+    }
+
+    @Benchmark
+    public WarpPoint getWarp() {
+        return manager.getWarp(BenchmarkWarps.name(nextIndex()));
+    }
+
+    @Benchmark
+    public void renameWarp() {
+        // toggles one warp between two names so the catalog size stays constant
+        if (renamed) {
+            manager.renameWarp("bench_renamed", BenchmarkWarps.name(0));
+        } else {
+            manager.renameWarp(BenchmarkWarps.name(0), "bench_renamed");
+        }
+        renamed = !renamed;
+    }
+
+    @Benchmark
+    public Map<String, WarpPoint> listWarps() {
+        return manager.listWarps();
+    }
+
+    private int nextIndex() {
+        cursor = (cursor + 7919) % warps;
+        return cursor;
+    }
+}
@@ -0,0 +1,55 @@
+package as.sirhephaistos;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Nearest-warp and radius queries against the spatial index, from random player positions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WarpSpatialIndexBenchmark {
+    @Param({"1000", "10000", "100000"})
+    public int warps;
+
+    private final SplittableRandom random = new SplittableRandom(42);
+    private WarpSpatialIndex index;
+    private WarpDimension overworld;
+    private Predicate<String> canSee;
+
+    @Setup
+    public void setup() {
+        index = new WarpSpatialIndex();
+        var snapshot = BenchmarkWarps.generate(warps);
+        index.onReload(new WarpSnapshot(1, snapshot, WarpNameIndex.of(snapshot.keySet())));
+        overworld = WarpDimension.of("minecraft:overworld");
+        canSee = BenchmarkWarps.stubPermissions();
+    }
+
+    @Benchmark
+    public List<WarpSpatialIndex.Hit> nearest() {
+        return index.nearest(overworld, random.nextInt(-30_000, 30_000), 64, random.nextInt(-30_000, 30_000), 1, canSee);
+    }
+
+    @Benchmark
+    public List<WarpSpatialIndex.Hit> nearestTen() {
+        return index.nearest(overworld, random.nextInt(-30_000, 30_000), 64, random.nextInt(-30_000, 30_000), 10, canSee);
+    }
+
+    @Benchmark
+    public List<WarpSpatialIndex.Hit> withinRadius() {
+        return index.within(overworld, random.nextInt(-30_000, 30_000), 64, random.nextInt(-30_000, 30_000), 1000, canSee);
+    }
+}
@@ -0,0 +1,255 @@
+package as.sirhephaistos;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+/**
+ * Default storage: a snapshot file (warps.json or warps.bin, see {@link WarpFileFormat}) plus warps.journal.
+ * Every change is appended to the journal; snapshots are written in the background once the journal has grown
+ * or on autosave, and the journal records they cover are then discarded.
+ */
+public final class FileWarpStorage implements WarpStorage {
+    private static final Logger LOGGER = LoggerFactory.getLogger("simplybetter-warps");
+    /**
+     * Journal size after which the next edit triggers a background compaction into a fresh snapshot.
+     */
+    private static final long JOURNAL_COMPACT_BYTES = 256 * 1024;
+    /**
+     * Snapshot requests closer together than this are written once.
+     */
+    private static final long SNAPSHOT_DEBOUNCE_MILLIS = 2000;
+    private final Path directory;
+    private final WarpFileFormat format;
+    private final Path file;
+    /**
+     * Current warps of the registry, captured when a compaction is requested.
+     */
+    private final Supplier<Map<String, WarpPoint>> current;
+    private WarpJournal journal;
+    private WarpSnapshotWriter writer;
+
+    public FileWarpStorage(Path directory, WarpFileFormat format, Supplier<Map<String, WarpPoint>> current) {
+        this.directory = directory;
+        this.format = format;
+        this.file = directory.resolve(format.fileName());
+        this.current = current;
+    }
+
+    /**
+     * True if a snapshot file in any format exists in the directory.
+     */
+    public boolean exists() {
+        for (WarpFileFormat f : WarpFileFormat.values()) {
+            if (Files.exists(directory.resolve(f.fileName()))) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Loads the snapshot file, then replays warps.journal on top of it.
+     * If only the other format exists, it is migrated: converted once, then renamed to *.migrated.
+     * If neither exists, an empty snapshot is created.
+     */
+    @Override
+    public Map<String, WarpPoint> load() throws IOException {
+        Files.createDirectories(directory);
+
+        long start = System.nanoTime();
+        Map<String, WarpPoint> warps;
+        Path migrated = null;
+        if (Files.exists(file)) {
+            warps = format.read(file);
+        } else {
+            warps = new HashMap<>();
+            for (WarpFileFormat other : WarpFileFormat.values()) {
+                Path source = directory.resolve(other.fileName());
+                if (other != format && Files.exists(source)) {
+                    warps = other.read(source);
+                    migrated = source;
+                    break;
+                }
+            }
+        }
+        LOGGER.debug("[Simply Better Warps] Read {} warps from {} in {} ms", warps.size(),
+                migrated != null ? migrated : file, (System.nanoTime() - start) / 1_000_000);
+
+        writer = new WarpSnapshotWriter(file, format, SNAPSHOT_DEBOUNCE_MILLIS);
+        if (!Files.exists(file)) {
+            // before the journal replay, so the journal still applies on top of the converted file
+            writer.writeNow(warps);
+        } else {
+            // the replay below edits the map in place; external edits are diffed against the file content
+            writer.markOnDisk(Map.copyOf(warps), WarpSnapshotWriter.OnDisk.UNKNOWN_CHECKSUM);
+        }
+        if (migrated != null) {
+            Files.move(migrated, migrated.resolveSibling(migrated.getFileName() + ".migrated"), StandardCopyOption.REPLACE_EXISTING);
+            LOGGER.info("[Simply Better Warps] Migrated {} warps from {} to {}", warps.size(), migrated.getFileName(), file.getFileName());
+        }
+        journal = new WarpJournal(directory.resolve("warps.journal"));
+        int replayed = journal.replay(warps);
+        journal.open();
+        if (replayed > 0) {
+            LOGGER.info("[Simply Better Warps] Replayed {} journal records", replayed);
+        }
+        return warps;
+    }
+
+    @Override
+    public void set(String name, WarpPoint point) {
+        journal.appendSet(name, point);
+        maybeCompact();
+    }
+
+    @Override
+    public void setAll(Map<String, WarpPoint> points) {
+        journal.appendSets(points);
+        maybeCompact();
+    }
+
+    @Override
+    public void delete(String name) {
+        journal.appendDelete(name);
+        maybeCompact();
+    }
+
+    @Override
+    public void rename(String from, String to, WarpPoint point) {
+        journal.appendRename(from, to, point);
+        maybeCompact();
+    }
+
+    /**
+     * Queues a snapshot if anything was journaled since the last one.
+     */
+    @Override
+    public void autosave() {
+        if (journal != null && journal.size() > 0) {
+            requestSnapshot();
+        }
+    }
+
+    /**
+     * Writes the snapshot on the calling thread and empties the journal.
+     */
+    @Override
+    public void save(Map<String, WarpPoint> snapshot) throws IOException {
+        writer.writeNow(snapshot);
+        journal.reset();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+        }
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    /**
+     * Renames the snapshot file and journal to *.migrated once another storage has taken their content over.
+     * Call after {@link #close()}.
+     */
+    public void retire() throws IOException {
+        for (Path path : new Path[]{file, directory.resolve("warps.journal"), directory.resolve("warps.journal.old")}) {
+            if (Files.exists(path)) {
+                Files.move(path, path.resolveSibling(path.getFileName() + ".migrated"), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+
+    /**
+     * Snapshot file this storage reads and writes.
+     */
+    public Path file() {
+        return file;
+    }
+
+    /**
+     * Reads the snapshot file if it no longer holds what the mod last wrote, i.e. it was edited externally.
+     * Safe to call from any thread.
+     *
+     * @return the edited content, or null if the file is missing or unchanged
+     */
+    public ExternalEdit readExternalEdit() throws IOException {
+        if (writer == null || !Files.exists(file)) return null;
+        WarpSnapshotWriter.FileContent content = writer.readFile();
+        CRC32 crc = new CRC32();
+        crc.update(content.bytes());
+        if (crc.getValue() == content.known().checksum()) return null;
+        // parsed from the hashed bytes, an editor may replace the file again meanwhile
+        return new ExternalEdit(content.known(), format.read(content.bytes(), file), crc.getValue());
+    }
+
+    /**
+     * Takes an external edit as the new file content, once it has been applied to the registry.
+     */
+    public void acceptExternalEdit(ExternalEdit edit) {
+        writer.markOnDisk(edit.known(), edit.warps(), edit.checksum());
+    }
+
+    /**
+     * Snapshot requests waiting to be written, for monitoring.
+     */
+    public int snapshotQueueDepth() {
+        return writer == null ? 0 : writer.queueDepth();
+    }
+
+    /**
+     * Queues the current warps for a background snapshot write and rotates the journal.
+     * Called under the registry's write lock, so the captured snapshot and the rotated records always match.
+     */
+    private void requestSnapshot() {
+        Map<String, WarpPoint> snapshot = current.get();
+        long generation;
+        try {
+            generation = journal.rotate();
+        } catch (IOException e) {
+            LOGGER.error("[Simply Better Warps] Failed to rotate warp journal", e);
+            return;
+        }
+        WarpJournal rotated = journal;
+        writer.submit(snapshot, () -> {
+            try {
+                rotated.discardRotated(generation);
+            } catch (IOException e) {
+                LOGGER.error("[Simply Better Warps] Failed to discard compacted journal", e);
+            }
+        });
+    }
+
+    /**
+     * Compacts the journal into a fresh snapshot once it has grown past {@link #JOURNAL_COMPACT_BYTES}.
+     */
+    private void maybeCompact() {
+        if (journal.size() >= JOURNAL_COMPACT_BYTES) {
+            requestSnapshot();
+        }
+    }
+
+    /**
+     * Snapshot file content written by someone else than the mod.
+     *
+     * @param known    the file as the mod last wrote or loaded it, before the edit
+     * @param warps    warps the file holds now
+     * @param checksum CRC32 of the edited file
+     */
+    public record ExternalEdit(WarpSnapshotWriter.OnDisk known, Map<String, WarpPoint> warps, long checksum) {
+        /**
+         * Warps the file held before the edit.
+         */
+        public Map<String, WarpPoint> base() {
+            return known.warps();
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package as.sirhephaistos;
+
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.world.ChunkTicketType;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the destination chunks of frequently used warps loaded, so teleports to them skip chunk loading.
+ * Pinned warps (config) are always kept; with automatic mode, warps whose decayed usage passes the configured
+ * rate are added too, most used first, until the chunk budget is reached. Everything else is released.
+ * Tickets are only added and removed on the server thread.
+ */
+public final class HotWarpTracker implements WarpChangeListener {
+    private static final HotWarpTracker INSTANCE = new HotWarpTracker();
+    private static final Logger LOGGER = LoggerFactory.getLogger("simplybetter-warps");
+    public static final ChunkTicketType<ChunkPos> HOT_WARP =
+            ChunkTicketType.create("simplybetter_hot_warp", Comparator.comparingLong(ChunkPos::toLong));
+    /**
+     * Loads just the destination chunk to full status, without making it or its neighbours tick.
+     */
+    private static final int TICKET_RADIUS = 0;
+    /**
+     * Usage decays with a one hour time constant, so a score approximates uses over the last hour.
+     */
+    private static final double DECAY_MILLIS = 3_600_000d;
+    private final Map<String, Usage> usage = new ConcurrentHashMap<>();
+    /**
+     * Chunks currently holding a ticket, with the warps they serve.
+     */
+    private Map<TicketKey, Set<String>> held = new HashMap<>();
+    private volatile Map<String, TicketKey> hot = Map.of();
+    private MinecraftServer server;
+    private int ticksUntilRefresh;
+
+    private HotWarpTracker() {
+    }
+
+    public static HotWarpTracker get() {
+        return INSTANCE;
+    }
+
+    public void start(MinecraftServer server) {
+        this.server = server;
+        refresh();
+    }
+
+    /**
+     * Counts one teleport to the given warp.
+     */
+    public void recordUse(String warpName) {
+        usage.computeIfAbsent(warpName.toLowerCase(Locale.ROOT), n -> new Usage()).hit(System.currentTimeMillis());
+    }
+
+    /**
+     * Called every server tick; recomputes the hot set every {@code refreshIntervalSeconds}.
+     */
+    public void tick() {
+        if (--ticksUntilRefresh > 0) return;
+        ticksUntilRefresh = Math.max(1, WarpConfig.get().hotWarps.refreshIntervalSeconds) * 20;
+        refresh();
+    }
+
+    /**
+     * Recomputes which warps are hot and moves chunk tickets accordingly.
+     */
+    public void refresh() {
+        if (server == null) return;
+        WarpConfig.HotWarps cfg = WarpConfig.get().hotWarps;
+        WarpSnapshot snapshot = WarpManager.get().snapshot();
+        long now = System.currentTimeMillis();
+
+        List<String> candidates = new ArrayList<>();
+        Set<String> pinned = new HashSet<>();
+        for (String name : cfg.pinned) {
+            String norm = name.toLowerCase(Locale.ROOT);
+            if (pinned.add(norm)) candidates.add(norm);
+        }
+        if (cfg.automatic) {
+            usage.entrySet().stream()
+                    .filter(e -> !pinned.contains(e.getKey()) && e.getValue().score(now) >= cfg.minUsesPerHour)
+                    .sorted(Comparator.comparingDouble((Map.Entry<String, Usage> e) -> e.getValue().score(now)).reversed())
+                    .forEach(e -> candidates.add(e.getKey()));
+        }
+        // forget warps nobody used for a long time
+        usage.values().removeIf(u -> u.score(now) < 0.01);
+
+        Map<TicketKey, Set<String>> desired = new LinkedHashMap<>();
+        Map<String, TicketKey> nextHot = new HashMap<>();
+        for (String name : candidates) {
+            WarpPoint wp = snapshot.get(name);
+            if (wp == null) continue;
+            TicketKey key = keyFor(wp);
+            if (key == null) continue;
+            if (!desired.containsKey(key) && desired.size() >= cfg.chunkBudget) continue;
+            desired.computeIfAbsent(key, k -> new HashSet<>()).add(name);
+            nextHot.put(name, key);
+        }
+
+        for (TicketKey key : held.keySet()) {
+            if (!desired.containsKey(key)) {
+                key.world().getChunkManager().removeTicket(HOT_WARP, key.pos(), TICKET_RADIUS, key.pos());
+            }
+        }
+        for (TicketKey key : desired.keySet()) {
+            if (!held.containsKey(key)) {
+                key.world().getChunkManager().addTicket(HOT_WARP, key.pos(), TICKET_RADIUS, key.pos());
+            }
+        }
+        if (!desired.keySet().equals(held.keySet())) {
+            LOGGER.debug("[Simply Better Warps] Hot warps: {} warps over {} chunks", nextHot.size(), desired.size());
+        }
+        held = desired;
+        hot = Map.copyOf(nextHot);
+    }
+
+    /**
+     * Releases every ticket, e.g. when the server stops.
+     */
+    public void releaseAll() {
+        for (TicketKey key : held.keySet()) {
+            key.world().getChunkManager().removeTicket(HOT_WARP, key.pos(), TICKET_RADIUS, key.pos());
+        }
+        held = new HashMap<>();
+        hot = Map.of();
+        server = null;
+    }
+
+    public boolean isHot(String warpName) {
+        return hot.containsKey(warpName);
+    }
+
+    /**
+     * Currently hot warp names.
+     */
+    public Set<String> hotWarps() {
+        return hot.keySet();
+    }
+
+    public int heldChunks() {
+        return held.size();
+    }
+
+    /**
+     * Decayed uses over roughly the last hour.
+     */
+    public double usesPerHour(String warpName) {
+        Usage u = usage.get(warpName);
+        return u == null ? 0 : u.score(System.currentTimeMillis());
+    }
+
+    @Override
+    public void onWarpSet(String name, WarpPoint previous, WarpPoint point) {
+        // a hot warp moved: its ticket has to follow
+        if (previous != null && hot.containsKey(name)) scheduleRefresh();
+    }
+
+    @Override
+    public void onWarpRemoved(String name, WarpPoint point) {
+        usage.remove(name);
+        if (hot.containsKey(name)) scheduleRefresh();
+    }
+
+    @Override
+    public void onReload(WarpSnapshot snapshot) {
+        scheduleRefresh();
+    }
+
+    private void scheduleRefresh() {
+        MinecraftServer s = server;
+        if (s != null) s.execute(this::refresh);
+    }
+
+    private TicketKey keyFor(WarpPoint wp) {
+        ServerWorld world = wp.dimension().world();
+        if (world == null) return null;
+        return new TicketKey(world, new ChunkPos(BlockPos.ofFloored(wp.x(), wp.y(), wp.z())));
+    }
+
+    private record TicketKey(ServerWorld world, ChunkPos pos) {
+    }
+
+    /**
+     * Exponentially decayed use counter.
+     */
+    private static final class Usage {
+        private double score;
+        private long updatedAt;
+
+        synchronized void hit(long now) {
+            score = score(now) + 1;
+            updatedAt = now;
+        }
+
+        synchronized double score(long now) {
+            if (updatedAt == 0) return score;
+            return score * Math.exp(-(now - updatedAt) / DECAY_MILLIS);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package as.sirhephaistos;
+
+import net.luckperms.api.LuckPerms;
+import net.luckperms.api.LuckPermsProvider;
+import net.luckperms.api.event.EventBus;
+import net.luckperms.api.event.group.GroupDataRecalculateEvent;
+import net.luckperms.api.event.user.UserDataRecalculateEvent;
+import net.luckperms.api.model.user.User;
+
+/**
+ * Invalidates {@link WarpPermissionCache} entries when LuckPerms recalculates permissions, and lists the nodes a
+ * player holds for per-warp overrides of grouped warps.
+ * Only loaded when LuckPerms is installed, so the rest of the mod never links against its API.
+ */
+final class LuckPermsHook {
+    private LuckPermsHook() {
+    }
+
+    static void register() {
+        LuckPerms luckPerms = LuckPermsProvider.get();
+        WarpPermissionCache.get().setExplicitNodes(player -> {
+            User user = luckPerms.getUserManager().getUser(player);
+            return user == null ? null : user.getCachedData().getPermissionData().getPermissionMap();
+        });
+        EventBus bus = luckPerms.getEventBus();
+        bus.subscribe(UserDataRecalculateEvent.class, e -> WarpPermissionCache.get().invalidate(e.getUser().getUniqueId()));
+        // group changes can affect any number of players
+        bus.subscribe(GroupDataRecalculateEvent.class, e -> WarpPermissionCache.get().invalidateAll());
+    }
+}
@@ -0,0 +1,286 @@
+package as.sirhephaistos;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-player private warps (homes), stored as one shard file per player in config/simplybetter/players/&lt;uuid&gt;.json.
+ * A shard is read off-thread when its player joins and dropped from memory a while after they leave,
+ * so memory follows online players rather than every player who ever set a home.
+ * Only shards changed since their last write are written, on the shard thread, periodically and on eviction.
+ * Changes happen on the server thread; reads are lock-free from any thread.
+ */
+public final class PrivateWarpStore {
+    private static final PrivateWarpStore INSTANCE = new PrivateWarpStore();
+    private static final Logger LOGGER = LoggerFactory.getLogger("simplybetter-warps");
+    public static final Path DIRECTORY = Path.of("config", "simplybetter", "players");
+    /**
+     * A shard stays in memory this long after its player left, so quick reconnects skip the reload.
+     */
+    private static final long EVICT_AFTER_MILLIS = 5 * 60_000;
+    /**
+     * Ticks between two writes of the dirty shards, and between two eviction checks.
+     */
+    private static final int SAVE_INTERVAL_TICKS = 20 * 30;
+    private final Map<UUID, Shard> shards = new ConcurrentHashMap<>();
+    /**
+     * Reads and writes every shard file, in submission order, so a shard is never read before its last write landed.
+     */
+    private ExecutorService io = newExecutor();
+    private int ticksUntilSave = SAVE_INTERVAL_TICKS;
+
+    private PrivateWarpStore() {
+    }
+
+    public static PrivateWarpStore get() {
+        return INSTANCE;
+    }
+
+    private static ExecutorService newExecutor() {
+        return Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "simplybetter-warps-private");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Starts loading the player's shard, unless it is still in memory from an earlier session.
+     */
+    public void onJoin(UUID player) {
+        if (io.isShutdown()) io = newExecutor();
+        Shard kept = shards.get(player);
+        if (kept != null) {
+            synchronized (kept) {
+                // the shard thread may have evicted it meanwhile, then it is read again below
+                if (shards.get(player) == kept) {
+                    kept.leftAt = -1;
+                    return;
+                }
+            }
+        }
+        Shard shard = new Shard(player);
+        shards.put(player, shard);
+        io.execute(() -> {
+            Path file = fileOf(player);
+            try {
+                if (Files.exists(file)) {
+                    shard.warps = Map.copyOf(WarpFileFormat.JSON.read(file));
+                }
+            } catch (Exception e) {
+                // the shard stays unloaded, so a broken file is never overwritten by an empty one
+                LOGGER.error("[Simply Better Warps] Failed to load private warps from {}", file, e);
+                shard.failed = true;
+                return;
+            }
+            shard.loaded = true;
+        });
+    }
+
+    /**
+     * Marks the player's shard for eviction once {@link #EVICT_AFTER_MILLIS} have passed.
+     */
+    public void onLeave(UUID player) {
+        Shard shard = shards.get(player);
+        if (shard != null) shard.leftAt = System.currentTimeMillis();
+    }
+
+    /**
+     * True once the player's shard has been read. Until then, their private warps are unknown.
+     */
+    public boolean isLoaded(UUID player) {
+        Shard shard = shards.get(player);
+        return shard != null && shard.loaded;
+    }
+
+    /**
+     * True if reading the player's shard failed. It is read again when they rejoin after it was evicted.
+     */
+    public boolean loadFailed(UUID player) {
+        Shard shard = shards.get(player);
+        return shard != null && shard.failed;
+    }
+
+    /**
+     * The player's private warp with that name, or null if they have none (or it is not loaded).
+     */
+    public WarpPoint get(UUID player, String name) {
+        Shard shard = shards.get(player);
+        return shard == null ? null : shard.warps.get(normalize(name));
+    }
+
+    /**
+     * Every private warp of the player, keyed by normalized name. Empty if none or not loaded.
+     */
+    public Map<String, WarpPoint> warps(UUID player) {
+        Shard shard = shards.get(player);
+        return shard == null ? Map.of() : shard.warps;
+    }
+
+    /**
+     * Creates or moves a private warp.
+     *
+     * @return false if the shard is not loaded or the player already has {@code limit} other private warps
+     */
+    public boolean set(UUID player, String name, WarpPoint point, int limit) {
+        Shard shard = shards.get(player);
+        if (shard == null || !shard.loaded) return false;
+        String norm = normalize(name);
+        synchronized (shard) {
+            if (!shard.warps.containsKey(norm) && shard.warps.size() >= limit) return false;
+            Map<String, WarpPoint> next = new HashMap<>(shard.warps);
+            next.put(norm, point);
+            shard.warps = Map.copyOf(next);
+            shard.version++;
+        }
+        return true;
+    }
+
+    /**
+     * Deletes a private warp. Returns true if it existed.
+     */
+    public boolean delete(UUID player, String name) {
+        Shard shard = shards.get(player);
+        if (shard == null || !shard.loaded) return false;
+        String norm = normalize(name);
+        synchronized (shard) {
+            if (!shard.warps.containsKey(norm)) return false;
+            Map<String, WarpPoint> next = new HashMap<>(shard.warps);
+            next.remove(norm);
+            shard.warps = Map.copyOf(next);
+            shard.version++;
+        }
+        return true;
+    }
+
+    /**
+     * Called every server tick; periodically writes dirty shards and evicts the ones whose player left long enough ago.
+     */
+    public void tick() {
+        if (--ticksUntilSave > 0) return;
+        ticksUntilSave = SAVE_INTERVAL_TICKS;
+        long now = System.currentTimeMillis();
+        for (Shard shard : shards.values()) {
+            writeIfDirty(shard);
+            if (shard.leftAt >= 0 && now - shard.leftAt >= EVICT_AFTER_MILLIS) io.execute(() -> evict(shard));
+        }
+    }
+
+    /**
+     * Drops the shard once its last write succeeded, on the shard thread so it runs after that write.
+     * A shard whose write failed stays in memory and is written again on the next pass.
+     */
+    private void evict(Shard shard) {
+        synchronized (shard) {
+            if (shard.leftAt >= 0 && shard.version == shard.writtenVersion) shards.remove(shard.owner, shard);
+        }
+    }
+
+    /**
+     * Writes every dirty shard and waits for the writes. Called when the server stops.
+     */
+    public void shutdown() {
+        shards.values().forEach(this::writeIfDirty);
+        shards.clear();
+        io.shutdown();
+        try {
+            if (!io.awaitTermination(30, TimeUnit.SECONDS)) {
+                LOGGER.warn("[Simply Better Warps] Private warps were not all written in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Number of shards currently in memory, for monitoring.
+     */
+    public int loadedShards() {
+        return shards.size();
+    }
+
+    private void writeIfDirty(Shard shard) {
+        Map<String, WarpPoint> warps;
+        long version;
+        synchronized (shard) {
+            if (!shard.loaded || shard.version == shard.writtenVersion) return;
+            warps = shard.warps;
+            version = shard.version;
+            shard.writtenVersion = version;
+        }
+        io.execute(() -> {
+            Path file = fileOf(shard.owner);
+            try {
+                write(file, warps);
+            } catch (IOException e) {
+                WarpMetrics.get().increment(WarpMetrics.Counter.STORAGE_ERRORS);
+                LOGGER.error("[Simply Better Warps] Failed to write private warps to {}", file, e);
+                // written again on the next pass
+                synchronized (shard) {
+                    if (shard.writtenVersion == version) shard.writtenVersion = -1;
+                }
+            }
+        });
+    }
+
+    private static void write(Path file, Map<String, WarpPoint> warps) throws IOException {
+        if (warps.isEmpty()) {
+            Files.deleteIfExists(file);
+            return;
+        }
+        Files.createDirectories(file.getParent());
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(tmp)) {
+            WarpFileFormat.JSON.write(warps, out);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static Path fileOf(UUID player) {
+        return DIRECTORY.resolve(player + ".json");
+    }
+
+    private static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Shard {
+        final UUID owner;
+        /**
+         * Immutable, replaced on every change.
+         */
+        volatile Map<String, WarpPoint> warps = Map.of();
+        volatile boolean loaded;
+        /**
+         * Set when reading the file failed; the shard then never loads.
+         */
+        volatile boolean failed;
+        /**
+         * When the player left in millis, or -1 while they are online.
+         */
+        volatile long leftAt = -1;
+        /**
+         * Change counter and the value it had at the last queued write, guarded by the shard.
+         */
+        long version;
+        long writtenVersion;
+
+        Shard(UUID owner) {
+            this.owner = owner;
+        }
+    }
+}
@@ -2,20 +2,95 @@ package as.sirhephaistos;
 
 import net.fabricmc.api.DedicatedServerModInitializer;
 import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
+import net.fabricmc.fabric.api.entity.event.v1.ServerLivingEntityEvents;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerWorldEvents;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
+import net.fabricmc.loader.api.FabricLoader;
+import net.minecraft.server.network.ServerPlayerEntity;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class SimplyBetterWarpsServer implements DedicatedServerModInitializer {
     private static final Logger LOGGER = LoggerFactory.getLogger("simplybetter-warps");
+    /**
+     * Ticks between two background snapshots of the warp file (5 minutes).
+     */
+    private static final int AUTOSAVE_INTERVAL_TICKS = 20 * 60 * 5;
 
     @Override
     public void onInitializeServer() {
         LOGGER.info("[Simply Better Warps] Initializing Simply Better Warps");
-        // load warps on server start
-        ServerLifecycleEvents.SERVER_STARTING.register(server -> WarpManager.get().load());
-        // save warps on server stop
-        ServerLifecycleEvents.SERVER_STOPPING.register(server -> WarpManager.get().save());
+        // permission results are cached per player and dropped when warps change
+        WarpManager.get().addListener(WarpPermissionCache.get());
+        WarpManager.get().addListener(HotWarpTracker.get());
+        WarpManager.get().addListener(WarpSpatialIndex.get());
+        WarpManager.get().addListener(WarpTrigramIndex.get());
+        WarpManager.get().addListener(WarpMetrics.get());
+        WarpManager.get().addListener(WarpGroups.get());
+        WarpManager.get().addListener(WarpListCache.get());
+        WarpManager.get().addListener(WarpDimension.MISSING_REPORTER);
+        // private warps are only held in memory for players who are (or just were) online
+        ServerPlayConnectionEvents.JOIN.register((handler, sender, server) -> PrivateWarpStore.get().onJoin(handler.player.getUuid()));
+        ServerPlayConnectionEvents.DISCONNECT.register((handler, server) -> {
+            PrivateWarpStore.get().onLeave(handler.player.getUuid());
+            WarpPermissionCache.get().invalidate(handler.player.getUuid());
+            WarpTeleporter.get().cancel(handler.player.getUuid(), false);
+            WarpScheduler.get().cancelWarmup(handler.player.getUuid(), null);
+        });
+        // taking damage cancels a teleport warmup; the damage itself is never blocked
+        ServerLivingEntityEvents.ALLOW_DAMAGE.register((entity, damageSource, amount) -> {
+            if (entity instanceof ServerPlayerEntity player) WarpScheduler.get().onDamage(player.getUuid());
+            return true;
+        });
+        // warps hold interned dimensions whose worlds are resolved once here and kept in sync with world load/unload
+        ServerWorldEvents.LOAD.register((server, world) -> WarpDimension.onWorldLoad(world));
+        ServerWorldEvents.UNLOAD.register((server, world) -> WarpDimension.onWorldUnload(world));
+        // LuckPerms is only ready once the server has started
+        ServerLifecycleEvents.SERVER_STARTED.register(server -> {
+            WarpDimension.attach(server);
+            WarpDimension.reportMissing(WarpManager.get().snapshot());
+            HotWarpTracker.get().start(server);
+            WarpMetrics.get().registerMBean();
+            WarpFileWatcher.get().start(server);
+            if (FabricLoader.getInstance().isModLoaded("luckperms")) {
+                LuckPermsHook.register();
+                LOGGER.info("[Simply Better Warps] Listening to LuckPerms permission changes");
+            }
+        });
+        // load config and warps on server start
+        ServerLifecycleEvents.SERVER_STARTING.register(server -> {
+            WarpConfig.load();
+            WarpManager.get().load();
+            WarpScheduler.get().start(server);
+        });
+        // periodic snapshot, serialized and written off the server thread
+        ServerTickEvents.END_SERVER_TICK.register(server -> {
+            if (server.getTicks() % AUTOSAVE_INTERVAL_TICKS == 0) WarpManager.get().autosave();
+            HotWarpTracker.get().tick();
+            WarpScheduler.get().tick();
+            WarpTeleporter.get().tick();
+            WarpMetrics.get().tick();
+            PrivateWarpStore.get().tick();
+        });
+        // write a final snapshot and close the journal on server stop
+        ServerLifecycleEvents.SERVER_STOPPING.register(server -> {
+            WarpTeleporter.get().cancelAll();
+            // remaining cooldowns are written to cooldowns.json
+            WarpScheduler.get().shutdown();
+            HotWarpTracker.get().releaseAll();
+            // picks up a last external edit before the final save would overwrite it
+            WarpFileWatcher.get().stop();
+            // its queued batches would otherwise land after the final save, or never run and block the import thread
+            WarpTransfer.get().cancel();
+            WarpManager.get().shutdown();
+            PrivateWarpStore.get().shutdown();
+        });
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> {
+            WarpDimension.detach();
+            WarpMetrics.get().unregisterMBean();
+        });
 
         LOGGER.info("[Simply Better Warps] Registering commands");
         //command registration callback
@@ -0,0 +1,309 @@
+package as.sirhephaistos;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sqlite.SQLiteDataSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Storage in an embedded SQLite database (warps.db), one row per warp.
+ * Every change is a single-row upsert or delete, so nothing is ever rewritten as a whole.
+ * The database is only read on load: lookups are answered by the registry's in-memory snapshot.
+ * If a row write fails, the next {@link #save} reconciles the whole table with the registry.
+ * While the table is empty, an existing warps.json/warps.bin (plus its journal) is imported and renamed to *.migrated.
+ */
+public final class SqliteWarpStorage implements WarpStorage {
+    private static final Logger LOGGER = LoggerFactory.getLogger("simplybetter-warps");
+    /**
+     * 1: initial layout. 2: warp_group column.
+     */
+    private static final int SCHEMA_VERSION = 2;
+    private static final String UPSERT = """
+            INSERT INTO warps (name, dimension, x, y, z, yaw, pitch, warp_group) VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (name) DO UPDATE SET dimension = excluded.dimension, x = excluded.x, y = excluded.y,
+            z = excluded.z, yaw = excluded.yaw, pitch = excluded.pitch, warp_group = excluded.warp_group""";
+    private final Path directory;
+    private final Path file;
+    private final WarpFileFormat legacyFormat;
+    private Connection connection;
+    private PreparedStatement upsert;
+    private PreparedStatement delete;
+    private PreparedStatement rename;
+    /**
+     * Set when a row write failed, so the table may no longer match the registry.
+     */
+    private boolean dirty;
+
+    /**
+     * @param directory    directory holding warps.db
+     * @param legacyFormat format of the snapshot file to import if the database does not exist yet
+     */
+    public SqliteWarpStorage(Path directory, WarpFileFormat legacyFormat) {
+        this.directory = directory;
+        this.file = directory.resolve("warps.db");
+        this.legacyFormat = legacyFormat;
+    }
+
+    @Override
+    public synchronized Map<String, WarpPoint> load() throws IOException {
+        Files.createDirectories(directory);
+        try {
+            // the data source is used directly: DriverManager does not see drivers bundled in a mod jar
+            SQLiteDataSource source = new SQLiteDataSource();
+            source.setUrl("jdbc:sqlite:" + file.toAbsolutePath());
+            connection = source.getConnection();
+            try (Statement st = connection.createStatement()) {
+                // WAL: a commit is one append to the log instead of a rewrite of the touched pages
+                st.execute("PRAGMA journal_mode = WAL");
+                st.execute("PRAGMA synchronous = NORMAL");
+                int schema;
+                try (ResultSet rs = st.executeQuery("PRAGMA user_version")) {
+                    schema = rs.next() ? rs.getInt(1) : 0;
+                }
+                st.execute("""
+                        CREATE TABLE IF NOT EXISTS warps (
+                            name TEXT PRIMARY KEY NOT NULL,
+                            dimension TEXT NOT NULL,
+                            x REAL NOT NULL, y REAL NOT NULL, z REAL NOT NULL,
+                            yaw REAL NOT NULL, pitch REAL NOT NULL,
+                            warp_group TEXT
+                        )""");
+                if (schema == 1) {
+                    st.execute("ALTER TABLE warps ADD COLUMN warp_group TEXT");
+                    LOGGER.info("[Simply Better Warps] Upgraded {} to schema version {}", file.getFileName(), SCHEMA_VERSION);
+                }
+                // nothing queries by dimension, so older databases drop the index instead of maintaining it on every write
+                st.execute("DROP INDEX IF EXISTS warps_dimension");
+                st.execute("PRAGMA user_version = " + SCHEMA_VERSION);
+            }
+            upsert = connection.prepareStatement(UPSERT);
+            delete = connection.prepareStatement("DELETE FROM warps WHERE name = ?");
+            rename = connection.prepareStatement("UPDATE warps SET name = ? WHERE name = ?");
+
+            // decided on the content rather than on the file existing, so an import that failed is tried again
+            if (isEmpty()) {
+                importLegacy();
+            }
+
+            long start = System.nanoTime();
+            Map<String, WarpPoint> warps = new HashMap<>();
+            try (Statement st = connection.createStatement();
+                 ResultSet rs = st.executeQuery("SELECT name, dimension, x, y, z, yaw, pitch, warp_group FROM warps")) {
+                while (rs.next()) {
+                    warps.put(rs.getString(1), readPoint(rs, 2));
+                }
+            }
+            LOGGER.debug("[Simply Better Warps] Read {} warps from {} in {} ms", warps.size(), file, (System.nanoTime() - start) / 1_000_000);
+            return warps;
+        } catch (SQLException e) {
+            closeAfterFailure();
+            throw new IOException("Failed to open warp database " + file, e);
+        } catch (IOException | RuntimeException e) {
+            closeAfterFailure();
+            throw e;
+        }
+    }
+
+    private boolean isEmpty() throws SQLException {
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery("SELECT 1 FROM warps LIMIT 1")) {
+            return !rs.next();
+        }
+    }
+
+    private void closeAfterFailure() {
+        try {
+            close();
+        } catch (IOException e) {
+            LOGGER.warn("[Simply Better Warps] Failed to close warp database {} after a failed load", file, e);
+        }
+    }
+
+    /**
+     * Imports the snapshot file and journal of the file storage, if there are any.
+     */
+    private void importLegacy() throws IOException, SQLException {
+        FileWarpStorage legacy = new FileWarpStorage(directory, legacyFormat, Map::of);
+        if (!legacy.exists()) return;
+        Map<String, WarpPoint> warps = legacy.load();
+        legacy.close();
+        writeAll(warps);
+        legacy.retire();
+        LOGGER.info("[Simply Better Warps] Imported {} warps into {}", warps.size(), file.getFileName());
+    }
+
+    @Override
+    public synchronized void set(String name, WarpPoint point) {
+        try {
+            bindUpsert(name, point);
+            upsert.executeUpdate();
+        } catch (SQLException e) {
+            failed("save warp " + name, e);
+        }
+    }
+
+    @Override
+    public synchronized void setAll(Map<String, WarpPoint> points) {
+        try {
+            writeAll(points);
+        } catch (SQLException e) {
+            failed("save " + points.size() + " warps", e);
+        }
+    }
+
+    @Override
+    public synchronized void delete(String name) {
+        try {
+            delete.setString(1, name);
+            delete.executeUpdate();
+        } catch (SQLException e) {
+            failed("delete warp " + name, e);
+        }
+    }
+
+    @Override
+    public synchronized void rename(String from, String to, WarpPoint point) {
+        try {
+            rename.setString(1, to);
+            rename.setString(2, from);
+            if (rename.executeUpdate() == 0) {
+                // the old row was missing (earlier write failed), write the warp under its new name instead
+                bindUpsert(to, point);
+                upsert.executeUpdate();
+            }
+        } catch (SQLException e) {
+            failed("rename warp " + from + " to " + to, e);
+        }
+    }
+
+    /**
+     * Moves committed pages from the write-ahead log back into the database, without waiting on readers.
+     */
+    @Override
+    public synchronized void autosave() {
+        try (Statement st = connection.createStatement()) {
+            st.execute("PRAGMA wal_checkpoint(PASSIVE)");
+        } catch (SQLException e) {
+            LOGGER.warn("[Simply Better Warps] Warp database checkpoint failed", e);
+        }
+    }
+
+    /**
+     * Every change is normally committed row by row already, then this only folds the write-ahead log into the
+     * database. After a failed row write, the table is first made to match the snapshot in one transaction.
+     */
+    @Override
+    public synchronized void save(Map<String, WarpPoint> snapshot) throws IOException {
+        long start = System.nanoTime();
+        try (Statement st = connection.createStatement()) {
+            if (dirty) {
+                reconcile(snapshot);
+                dirty = false;
+                LOGGER.info("[Simply Better Warps] Rewrote {} warps to {} after earlier write failures", snapshot.size(), file.getFileName());
+            }
+            st.execute("PRAGMA wal_checkpoint(TRUNCATE)");
+            WarpMetrics.get().timer(WarpMetrics.Timer.SAVE).recordSince(start);
+            WarpMetrics.get().recordStorageBytes(Files.size(file));
+        } catch (SQLException e) {
+            throw new IOException("Failed to save warp database " + file, e);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (connection == null) return;
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            throw new IOException("Failed to close warp database " + file, e);
+        } finally {
+            connection = null;
+        }
+    }
+
+    private void writeAll(Map<String, WarpPoint> points) throws SQLException {
+        inTransaction(() -> upsertAll(points));
+    }
+
+    /**
+     * Upserts every warp of the snapshot and deletes every row missing from it, as one transaction.
+     */
+    private void reconcile(Map<String, WarpPoint> snapshot) throws SQLException {
+        inTransaction(() -> {
+            try (Statement st = connection.createStatement();
+                 ResultSet rs = st.executeQuery("SELECT name FROM warps")) {
+                while (rs.next()) {
+                    String name = rs.getString(1);
+                    if (!snapshot.containsKey(name)) {
+                        delete.setString(1, name);
+                        delete.addBatch();
+                    }
+                }
+            }
+            delete.executeBatch();
+            upsertAll(snapshot);
+        });
+    }
+
+    private void upsertAll(Map<String, WarpPoint> points) throws SQLException {
+        for (var entry : points.entrySet()) {
+            bindUpsert(entry.getKey(), entry.getValue());
+            upsert.addBatch();
+        }
+        upsert.executeBatch();
+    }
+
+    private void inTransaction(SqlWork work) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            work.run();
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private void bindUpsert(String name, WarpPoint point) throws SQLException {
+        upsert.setString(1, name);
+        upsert.setString(2, point.dimensionId());
+        upsert.setDouble(3, point.x());
+        upsert.setDouble(4, point.y());
+        upsert.setDouble(5, point.z());
+        upsert.setFloat(6, point.yaw());
+        upsert.setFloat(7, point.pitch());
+        upsert.setString(8, point.group());
+    }
+
+    private static WarpPoint readPoint(ResultSet rs, int column) throws SQLException {
+        return new WarpPoint(rs.getString(column), rs.getDouble(column + 1), rs.getDouble(column + 2), rs.getDouble(column + 3),
+                rs.getFloat(column + 4), rs.getFloat(column + 5), rs.getString(column + 6));
+    }
+
+    /**
+     * The in-memory registry already holds the change; the next {@link #save} writes it again.
+     */
+    private void failed(String what, SQLException e) {
+        dirty = true;
+        WarpMetrics.get().increment(WarpMetrics.Counter.STORAGE_ERRORS);
+        LOGGER.error("[Simply Better Warps] Failed to {} in {}, it is written again on the next save", what, file, e);
+    }
+
+    @FunctionalInterface
+    private interface SqlWork {
+        void run() throws SQLException;
+    }
+}
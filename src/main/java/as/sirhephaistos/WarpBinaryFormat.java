@@ -0,0 +1,191 @@
+package as.sirhephaistos;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Compact binary warp file (warps.bin), big-endian:
+ * <pre>
+ * header      int magic "SBWP", short version, short flags, int dimensionCount, int warpCount
+ * dimensions  dimensionCount x (ushort length, UTF-8 id)
+ * groups      int groupCount, groupCount x (ushort length, UTF-8 group)                      since version 2
+ * records     warpCount x (int dimensionIndex, double x, double y, double z, float yaw, float pitch,
+ *                          int groupIndex or -1)                                            groupIndex since version 2
+ * names       warpCount x (ushort length, UTF-8 name), in record order
+ * trailer     int CRC32 of everything before it
+ * </pre>
+ * Records are fixed width, so loading is a straight walk over one buffer with no per-field lookups.
+ * Version 1 files (without groups) are still read.
+ */
+final class WarpBinaryFormat {
+    static final int MAGIC = 0x53425750;
+    static final short VERSION = 2;
+    private static final int HEADER_BYTES = 4 + 2 + 2 + 4 + 4;
+    private static final int RECORD_BYTES_V1 = 4 + 3 * 8 + 2 * 4;
+    private static final int RECORD_BYTES = RECORD_BYTES_V1 + 4;
+    private static final int TRAILER_BYTES = 4;
+
+    private WarpBinaryFormat() {
+    }
+
+    static void write(Map<String, WarpPoint> warps, OutputStream out) throws IOException {
+        @SuppressWarnings("unchecked")
+        Map.Entry<String, WarpPoint>[] entries = warps.entrySet().toArray(new Map.Entry[0]);
+        Map<WarpDimension, Integer> dimensions = new LinkedHashMap<>();
+        Map<String, Integer> groups = new LinkedHashMap<>();
+        for (var entry : entries) {
+            dimensions.putIfAbsent(entry.getValue().dimension(), dimensions.size());
+            if (entry.getValue().group() != null) groups.putIfAbsent(entry.getValue().group(), groups.size());
+        }
+
+        BufferedOutputStream buffered = new BufferedOutputStream(out, 1 << 16);
+        CRC32 crc = new CRC32();
+        DataOutputStream data = new DataOutputStream(new CheckedOutputStream(buffered, crc));
+        data.writeInt(MAGIC);
+        data.writeShort(VERSION);
+        data.writeShort(0);
+        data.writeInt(dimensions.size());
+        data.writeInt(entries.length);
+        for (WarpDimension dim : dimensions.keySet()) {
+            writeString(data, dim.id());
+        }
+        data.writeInt(groups.size());
+        for (String group : groups.keySet()) {
+            writeString(data, group);
+        }
+        for (var entry : entries) {
+            WarpPoint wp = entry.getValue();
+            data.writeInt(dimensions.get(wp.dimension()));
+            data.writeDouble(wp.x());
+            data.writeDouble(wp.y());
+            data.writeDouble(wp.z());
+            data.writeFloat(wp.yaw());
+            data.writeFloat(wp.pitch());
+            data.writeInt(wp.group() == null ? -1 : groups.get(wp.group()));
+        }
+        for (var entry : entries) {
+            writeString(data, entry.getKey());
+        }
+        data.flush();
+        // the checksum itself is not part of the checksum
+        new DataOutputStream(buffered).writeInt((int) crc.getValue());
+        buffered.flush();
+    }
+
+    /**
+     * Reads a whole warp file. Names are expected to be normalized already, as they are when written.
+     */
+    static Map<String, WarpPoint> read(Path file) throws IOException {
+        ByteBuffer buf;
+        // read into memory rather than mapping: a live mapping keeps the file locked on Windows,
+        // which would make the next atomic replace of warps.bin fail until the mapping is collected
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Warp file " + file + " is too large");
+            }
+            buf = ByteBuffer.allocate((int) size);
+            while (buf.hasRemaining()) {
+                if (channel.read(buf) < 0) break;
+            }
+            buf.flip();
+        }
+        return read(buf, file);
+    }
+
+    /**
+     * Decodes a whole warp file already read into memory.
+     *
+     * @param file where the bytes came from, for error messages
+     */
+    static Map<String, WarpPoint> read(ByteBuffer buf, Path file) throws IOException {
+        try {
+            return decode(buf, file);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Warp file " + file + " is truncated or corrupt", e);
+        }
+    }
+
+    private static Map<String, WarpPoint> decode(ByteBuffer buf, Path file) throws IOException {
+        int size = buf.limit();
+        if (size < HEADER_BYTES + TRAILER_BYTES) {
+            throw new IOException("Warp file " + file + " is truncated");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buf.duplicate().limit(size - TRAILER_BYTES));
+        if ((int) crc.getValue() != buf.getInt(size - TRAILER_BYTES)) {
+            throw new IOException("Warp file " + file + " failed its checksum");
+        }
+        if (buf.getInt() != MAGIC) {
+            throw new IOException(file + " is not a warp file");
+        }
+        short version = buf.getShort();
+        if (version > VERSION) {
+            throw new IOException("Warp file " + file + " has version " + version + ", newer than this mod supports (" + VERSION + ")");
+        }
+        buf.getShort(); // flags, none defined yet
+        int dimensionCount = buf.getInt();
+        int count = buf.getInt();
+
+        WarpDimension[] dimensions = new WarpDimension[dimensionCount];
+        for (int i = 0; i < dimensionCount; i++) {
+            dimensions[i] = WarpDimension.of(readString(buf));
+        }
+
+        String[] groups = new String[0];
+        if (version >= 2) {
+            groups = new String[buf.getInt()];
+            for (int i = 0; i < groups.length; i++) {
+                groups[i] = readString(buf);
+            }
+        }
+
+        int recordBytes = version >= 2 ? RECORD_BYTES : RECORD_BYTES_V1;
+        ByteBuffer names = buf.duplicate().position(buf.position() + count * recordBytes);
+        Map<String, WarpPoint> warps = new HashMap<>((int) (count / 0.75f) + 1);
+        for (int i = 0; i < count; i++) {
+            WarpDimension dim = dimensions[buf.getInt()];
+            double x = buf.getDouble();
+            double y = buf.getDouble();
+            double z = buf.getDouble();
+            float yaw = buf.getFloat();
+            float pitch = buf.getFloat();
+            String group = null;
+            if (version >= 2) {
+                int groupIndex = buf.getInt();
+                if (groupIndex >= 0) group = groups[groupIndex];
+            }
+            warps.put(readString(names), new WarpPoint(dim, x, y, z, yaw, pitch, group));
+        }
+        return warps;
+    }
+
+    private static void writeString(DataOutputStream data, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IOException("String too long for warp file: " + value.substring(0, 32) + "...");
+        }
+        data.writeShort(bytes.length);
+        data.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buf) {
+        int length = Short.toUnsignedInt(buf.getShort());
+        String value = new String(buf.array(), buf.arrayOffset() + buf.position(), length, StandardCharsets.UTF_8);
+        buf.position(buf.position() + length);
+        return value;
+    }
+}
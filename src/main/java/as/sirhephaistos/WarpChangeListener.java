@@ -0,0 +1,31 @@
+package as.sirhephaistos;
+
+/**
+ * Notified by {@link WarpManager} after every published change.
+ * Called on the thread that made the edit, while the registry write lock is held, so keep it cheap.
+ * A rename is reported as a removal of the old name followed by a set of the new one.
+ */
+public interface WarpChangeListener {
+    /**
+     * A warp was created or overwritten.
+     *
+     * @param name     normalized warp name
+     * @param previous point the name had before, or null if it is new
+     * @param point    new point
+     */
+    void onWarpSet(String name, WarpPoint previous, WarpPoint point);
+
+    /**
+     * A warp was deleted (or renamed away).
+     *
+     * @param name  normalized warp name
+     * @param point point the name had
+     */
+    void onWarpRemoved(String name, WarpPoint point);
+
+    /**
+     * The whole registry was replaced, e.g. by {@link WarpManager#load()}.
+     */
+    default void onReload(WarpSnapshot snapshot) {
+    }
+}
@@ -2,53 +2,106 @@ package as.sirhephaistos;
 
 import com.mojang.brigadier.Command;
 import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
 import com.mojang.brigadier.arguments.StringArgumentType;
+import com.mojang.brigadier.context.CommandContext;
+import com.mojang.brigadier.exceptions.CommandSyntaxException;
 import com.mojang.brigadier.suggestion.SuggestionProvider;
 import me.lucko.fabric.api.permissions.v0.Permissions;
-import net.fabricmc.fabric.api.util.TriState;
-import net.minecraft.command.CommandSource;
-import net.minecraft.registry.RegistryKey;
-import net.minecraft.registry.RegistryKeys;
+import net.minecraft.command.argument.DimensionArgumentType;
+import net.minecraft.command.argument.EntityArgumentType;
 import net.minecraft.server.command.ServerCommandSource;
 import net.minecraft.server.network.ServerPlayerEntity;
-import net.minecraft.server.world.ChunkTicketType;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.text.*;
-import net.minecraft.util.Identifier;
-import net.minecraft.util.math.BlockPos;
-import net.minecraft.util.math.ChunkPos;
-import net.minecraft.world.World;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Objects;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
 
 import static net.minecraft.server.command.CommandManager.argument;
 import static net.minecraft.server.command.CommandManager.literal;
 
 public final class WarpCommands {
     private static final Logger LOGGER = LoggerFactory.getLogger("simplybetter-warps");
-    // --- Suggestion provider: list of warps the user can see ---
+    /**
+     * Maximum number of warp names offered per completion request.
+     */
+    private static final int MAX_SUGGESTIONS = 50;
+    /**
+     * Radius of /warps near when none is given, and the largest one accepted.
+     */
+    private static final int DEFAULT_NEAR_RADIUS = 256;
+    private static final int MAX_NEAR_RADIUS = 10_000;
+    /**
+     * Nearby warps listed at most; the closest ones are kept.
+     */
+    private static final int MAX_NEAR_RESULTS = 30;
+    /**
+     * Results of /warpsearch, and suggestions after a /warp to an unknown name.
+     */
+    private static final int MAX_SEARCH_RESULTS = 15;
+    private static final int MAX_DID_YOU_MEAN = 5;
+    /**
+     * Warmups listed one by one by /warpadmin pending.
+     */
+    private static final int MAX_PENDING_LISTED = 20;
+    // --- Suggestion provider: warps the user can see, starting with what was typed ---
     private static final SuggestionProvider<ServerCommandSource> WARP_NAME_SUGGESTER = (ctx, builder) -> {
-        var wManager = WarpManager.get();
+        long start = System.nanoTime();
         var src = ctx.getSource();
-        var warps = wManager.listWarps().keySet().stream()
-                .filter(name -> canSeeWarp(src, name))
-                .sorted()
-                .toArray(String[]::new);
-        return CommandSource.suggestMatching(warps, builder);
+        String prefix = builder.getRemainingLowerCase();
+        var player = src.getPlayer();
+        if (player != null) {
+            // the player's own private warps first, they shadow global ones of the same name
+            PrivateWarpStore.get().warps(player.getUuid()).keySet().stream()
+                    .filter(name -> name.startsWith(prefix))
+                    .sorted()
+                    .forEach(builder::suggest);
+        }
+        suggestWarpNames(WarpManager.get().names(), prefix, name -> canSeeWarp(src, name))
+                .forEach(builder::suggest);
+        WarpMetrics.get().timer(WarpMetrics.Timer.SUGGEST).recordSince(start);
+        return builder.buildFuture();
     };
 
     private WarpCommands() {
     }
-    private static boolean checkWildcardOrPerm(ServerCommandSource src, String node, String argument, int opLevelDefault,boolean shouldNegativePermOverride) {
-        final String permission = node.toLowerCase() + "." + argument.toLowerCase();
-        if (shouldNegativePermOverride &&  Permissions.getPermissionValue(src, permission) == TriState.FALSE ) return false;
-        return Permissions.check(src, node.toLowerCase() + ".*") || Permissions.check(src, permission, opLevelDefault);
-    }
 
+    // --- Suggestion provider: existing warp groups starting with what was typed ---
+    private static final SuggestionProvider<ServerCommandSource> GROUP_SUGGESTER = (ctx, builder) -> {
+        String prefix = builder.getRemainingLowerCase();
+        WarpGroups.get().groups().keySet().stream()
+                .filter(group -> group.startsWith(prefix))
+                .limit(MAX_SUGGESTIONS)
+                .forEach(builder::suggest);
+        return builder.buildFuture();
+    };
+
+    /**
+     * Warp names to offer for a typed prefix, at most {@link #MAX_SUGGESTIONS}.
+     * Jumps to the prefix in the sorted index; permissions are only checked for the names walked.
+     */
+    static List<String> suggestWarpNames(WarpNameIndex names, String prefix, Predicate<String> canSee) {
+        List<String> found = new ArrayList<>();
+        names.forEachWithPrefix(prefix, name -> {
+            if (canSee.test(name)) found.add(name);
+            return found.size() < MAX_SUGGESTIONS;
+        });
+        return found;
+    }
 
     /**
      * Check if the source has permission to see the given warp in the warp list.
@@ -58,8 +111,7 @@ public final class WarpCommands {
      * @return true if the source has permission to see the warp
      */
     private static boolean canSeeWarp(ServerCommandSource src, String warpName) {
-        /*return Permissions.check(src, "simplybetter.warps.see." + warpName.toLowerCase(), 1) || Permissions.check(src, "simplybetter.warps.see.*");*/
-        return checkWildcardOrPerm(src, "simplybetter.warps.see", warpName,1,true);
+        return WarpPermissionCache.get().canSee(src, warpName);
     }
 
     /**
@@ -70,8 +122,390 @@ public final class WarpCommands {
      * @return true if the source has permission to teleport to the warp
      */
     private static boolean canTpToWarp(ServerCommandSource src, String warpName) {
-        /*return Permissions.check(src, "simplybetter.warps.tpto." + warpName.toLowerCase(), 1) || Permissions.check(src, "simplybetter.warps.tpto.*");*/
-        return checkWildcardOrPerm(src, "simplybetter.warps.tpto", warpName,1,true);
+        return WarpPermissionCache.get().canTpTo(src, warpName);
+    }
+
+    /**
+     * Teleports a player to a warp after checking permission and destination, as /warp does.
+     * The player's own private warp of that name, if any, wins over a global one.
+     */
+    private static int teleportTo(ServerCommandSource source, ServerPlayerEntity player, String warpName) {
+        WarpPoint wp = resolveTarget(player, warpName);
+        if (wp == null) {
+            if (!PrivateWarpStore.get().isLoaded(player.getUuid())) {
+                sendPrivateUnavailable(source, player.getUuid());
+            } else {
+                sendNotFound(source, warpName);
+            }
+            return 0;
+        }
+        boolean global = PrivateWarpStore.get().get(player.getUuid(), warpName) == null;
+        if (global && !canTpToWarp(source, warpName)) {
+            if (!canSeeWarp(source, warpName)) {
+                // same answer as for an unknown name, so hidden warps cannot be probed with /warp
+                sendNotFound(source, warpName);
+            } else {
+                source.sendError(Text.literal("[Simply Better Warps] You don't have permission to teleport to '" + warpName + "'."));
+            }
+            return 0;
+        }
+        return scheduleTeleport(source, player, warpName, wp, true);
+    }
+
+    /**
+     * Applies cooldowns and the warmup to a teleport whose target and permission were already checked.
+     *
+     * @param byName true if the player named the warp, so their private warp of that name wins as in /warp;
+     *               false for a global warp found another way, as by /warpnearest
+     */
+    private static int scheduleTeleport(ServerCommandSource source, ServerPlayerEntity player, String warpName, WarpPoint wp, boolean byName) {
+        boolean global = !byName || PrivateWarpStore.get().get(player.getUuid(), warpName) == null;
+        var scheduler = WarpScheduler.get();
+        var cfg = WarpConfig.get();
+        if ((cfg.cooldown.playerSeconds > 0 || cfg.cooldown.warpSeconds > 0)
+                && !Permissions.check(source, "simplybetter.warps.bypass.cooldown", 2)) {
+            long left = scheduler.cooldownRemainingTicks(player.getUuid(), warpName);
+            if (left > 0) {
+                WarpMetrics.get().increment(WarpMetrics.Counter.COOLDOWN_REJECTIONS);
+                source.sendError(Text.literal("[Simply Better Warps] You can warp to '%s' again in %ds."
+                        .formatted(warpName, (left + 19) / 20)));
+                return 0;
+            }
+        }
+        if (cfg.warmup.seconds <= 0 || Permissions.check(source, "simplybetter.warps.bypass.warmup", 2)) {
+            return beginTeleport(source, player, warpName, wp, global);
+        }
+        scheduler.warmup(player, warpName, cfg.warmup.seconds * 20, p -> finishWarmup(p, warpName, byName));
+        source.sendFeedback(() -> Text.literal("[Simply Better Warps] Teleporting to '%s' in %ds, don't move.".formatted(warpName, cfg.warmup.seconds)), false);
+        return 1;
+    }
+
+    /**
+     * Teleports once the warmup is over. The warp is looked up and its permission checked again: it may have moved,
+     * been deleted or been shadowed by a new private warp, and the player's grants may have changed meanwhile.
+     */
+    private static void finishWarmup(ServerPlayerEntity player, String warpName, boolean byName) {
+        ServerCommandSource source = player.getCommandSource();
+        WarpPoint own = byName ? PrivateWarpStore.get().get(player.getUuid(), warpName) : null;
+        WarpPoint target = own != null ? own : WarpManager.get().snapshot().get(warpName.toLowerCase(Locale.ROOT));
+        boolean global = own == null;
+        if (target == null || global && !canSeeWarp(source, warpName)) {
+            player.sendMessage(Text.literal("[Simply Better Warps] Warp '" + warpName + "' no longer exists."));
+            return;
+        }
+        if (global && !canTpToWarp(source, warpName)) {
+            source.sendError(Text.literal("[Simply Better Warps] You don't have permission to teleport to '" + warpName + "'."));
+            return;
+        }
+        beginTeleport(source, player, warpName, target, global);
+    }
+
+    /**
+     * The player's private warp of that name, else the global one, else null.
+     */
+    private static WarpPoint resolveTarget(ServerPlayerEntity player, String warpName) {
+        WarpPoint own = PrivateWarpStore.get().get(player.getUuid(), warpName);
+        return own != null ? own : WarpManager.get().snapshot().get(warpName.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Starts the teleport, then the cooldowns and usage tracking once it is under way.
+     */
+    private static int beginTeleport(ServerCommandSource source, ServerPlayerEntity player, String warpName, WarpPoint wp, boolean global) {
+        int result = startTeleport(source, player, warpName, wp);
+        if (result == 1) {
+            WarpScheduler.get().startCooldown(player.getUuid(), warpName);
+            if (global) HotWarpTracker.get().recordUse(warpName);
+        }
+        return result;
+    }
+
+    /**
+     * Checks the destination dimension and hands the teleport to {@link WarpTeleporter}.
+     */
+    private static int startTeleport(ServerCommandSource source, ServerPlayerEntity player, String warpName, WarpPoint wp) {
+        try {
+            if (wp.dimension().key() == null) {
+                source.sendError(Text.literal("Invalid dimension id on warp: " + wp.dimensionId()));
+                return 0;
+            }
+            // resolved once per server lifetime by the dimension table
+            ServerWorld targetWorld = wp.dimension().world();
+            if (targetWorld == null) {
+                source.sendError(Text.literal("Target dimension not found on server: " + wp.dimensionId()));
+                return 0;
+            }
+            // teleports right away if the chunk is loaded, otherwise once it has loaded off-tick
+            WarpTeleporter.get().teleport(source, player, warpName, wp, targetWorld);
+            return 1;
+        } catch (Exception e) {
+            source.sendError(Text.literal(e.getMessage()));
+            LOGGER.error("[Simply Better Warps] Error during warp teleport:{}", e.getMessage(), e);
+            return 0;
+        }
+    }
+
+    /**
+     * Lists the player's private warps, each clickable.
+     */
+    private static int listPrivateWarps(ServerCommandSource src) {
+        var player = src.getPlayer();
+        if (player == null) {
+            src.sendError(Text.literal("[Simply Better Warps] Only players have private warps."));
+            return 0;
+        }
+        var names = new ArrayList<>(PrivateWarpStore.get().warps(player.getUuid()).keySet());
+        int limit = WarpConfig.get().privateWarps.maxPerPlayer;
+        if (names.isEmpty()) {
+            src.sendFeedback(() -> Text.literal("[Simply Better Warps] You have no private warps. Set one with /setwarp <name> private."), false);
+            return 1;
+        }
+        names.sort(null);
+        List<Text> entries = new ArrayList<>();
+        for (String name : names) {
+            entries.add(Text.literal(name).styled(s -> s
+                    .withUnderline(true)
+                    .withClickEvent(new ClickEvent(ClickEvent.Action.RUN_COMMAND, "/warp " + name))
+                    .withHoverEvent(new HoverEvent(HoverEvent.Action.SHOW_TEXT, Text.literal("Clique pour /warp " + name)))));
+        }
+        Text msg = Text.literal("[Simply Better Warps] Your private warps (%d/%d): ".formatted(names.size(), limit))
+                .append(joinEntries(entries));
+        src.sendFeedback(() -> msg, false);
+        return names.size();
+    }
+
+    /**
+     * A warp name for chat listings: clickable if the source may teleport there, greyed out otherwise.
+     */
+    private static MutableText warpEntry(ServerCommandSource src, String name) {
+        MutableText item = Text.literal(name);
+        if (canTpToWarp(src, name)) {
+            return item.styled(s -> s
+                    .withUnderline(true)
+                    .withClickEvent(new ClickEvent(ClickEvent.Action.RUN_COMMAND, "/warp " + name))
+                    .withHoverEvent(new HoverEvent(HoverEvent.Action.SHOW_TEXT,
+                            Text.literal("Clique pour /warp " + name))));
+        }
+        return item.styled(s -> s
+                .withItalic(true)
+                .withColor(0x7f7f7f)
+                .withHoverEvent(new HoverEvent(HoverEvent.Action.SHOW_TEXT,
+                        Text.literal("Tu n'as pas la permission de /warp " + name))));
+    }
+
+    private static Text joinEntries(List<Text> entries) {
+        try {
+            return Texts.join(entries, Text.literal(", "));
+        } catch (Throwable ignored) {
+            // Fallback si mappings diffèrent : construire manuellement
+            MutableText tmp = Text.empty();
+            for (int i = 0; i < entries.size(); i++) {
+                if (i > 0) tmp.append(Text.literal(", "));
+                tmp.append(entries.get(i));
+            }
+            return tmp;
+        }
+    }
+
+    /**
+     * Tells a player why their private warps cannot be used yet: still being read, or the read failed.
+     */
+    private static void sendPrivateUnavailable(ServerCommandSource source, UUID player) {
+        if (PrivateWarpStore.get().loadFailed(player)) {
+            source.sendError(Text.literal("[Simply Better Warps] Your homes failed to load, ask an admin to check the server log."));
+        } else {
+            source.sendError(Text.literal("[Simply Better Warps] Your private warps are still loading, try again in a moment."));
+        }
+    }
+
+    /**
+     * Reports a missing warp, with the closest visible names as clickable suggestions.
+     * Also the answer for a warp the source may not see, so its existence is not revealed.
+     */
+    private static void sendNotFound(ServerCommandSource source, String warpName) {
+        var matches = WarpTrigramIndex.get().search(warpName, MAX_DID_YOU_MEAN, name -> canSeeWarp(source, name));
+        MutableText msg = Text.literal("[Simply Better Warps] Warp '" + warpName + "' not found.");
+        if (!matches.isEmpty()) {
+            List<Text> entries = new ArrayList<>();
+            for (var match : matches) {
+                entries.add(warpEntry(source, match.name()));
+            }
+            msg.append(Text.literal(" Did you mean: ")).append(joinEntries(entries)).append(Text.literal("?"));
+        }
+        source.sendError(msg);
+    }
+
+    /**
+     * Lists the visible warps whose name is similar to {@code text}, best match first.
+     */
+    private static int searchWarps(ServerCommandSource src, String text) {
+        long start = System.nanoTime();
+        var matches = WarpTrigramIndex.get().search(text, MAX_SEARCH_RESULTS, name -> canSeeWarp(src, name));
+        WarpMetrics.get().timer(WarpMetrics.Timer.SEARCH).recordSince(start);
+        if (matches.isEmpty()) {
+            src.sendFeedback(() -> Text.literal("[Simply Better Warps] No warp matches '%s'.".formatted(text)), false);
+            return 0;
+        }
+        List<Text> entries = new ArrayList<>();
+        for (var match : matches) {
+            entries.add(warpEntry(src, match.name()));
+        }
+        Text msg = Text.literal("[Simply Better Warps] Warps matching '%s' (%d): ".formatted(text, matches.size()))
+                .append(joinEntries(entries));
+        src.sendFeedback(() -> msg, false);
+        return matches.size();
+    }
+
+    /**
+     * Shows one page of the warps the source may see, optionally only those of one dimension.
+     * Pages come from {@link WarpListCache}, so only the requested page is ever rendered.
+     */
+    private static int listWarps(ServerCommandSource src, WarpDimension dimension, String group, int page) {
+        long start = System.nanoTime();
+        var listing = WarpListCache.get().listing(src, dimension, group);
+        if (listing.names().isEmpty()) {
+            src.sendFeedback(() -> Text.literal("[Simply Better Warps] Aucun warp visible."), false);
+            return 1;
+        }
+        if (page > listing.pageCount()) {
+            src.sendError(Text.literal("[Simply Better Warps] Page %d does not exist, there are %d.".formatted(page, listing.pageCount())));
+            return 0;
+        }
+        Text msg = listing.page(page, names -> renderPage(src, dimension, group, page, listing.pageCount(), listing.names().size(), names));
+        WarpMetrics.get().timer(WarpMetrics.Timer.LIST).recordSince(start);
+        src.sendFeedback(() -> msg, false);
+        return 1;
+    }
+
+    private static Text renderPage(ServerCommandSource src, WarpDimension dimension, String group, int page, int pages,
+                                   int total, List<String> names) {
+        List<Text> clickable = new ArrayList<>();
+        for (String name : names) {
+            clickable.add(warpEntry(src, name));
+        }
+        String scope = group != null ? " in group " + group : dimension != null ? " in " + dimension.id() : "";
+        MutableText msg = Text.literal("[Simply Better Warps] Warps%s (%d), page %d/%d: ".formatted(scope, total, page, pages))
+                .append(joinEntries(clickable));
+        if (pages > 1) {
+            String command = group != null ? "/warps group " + group + " " : dimension != null ? "/warps " + dimension.id() + " " : "/warps ";
+            msg.append(Text.literal(" "));
+            if (page > 1) msg.append(pageLink("<<", command + (page - 1), page - 1));
+            if (page > 1 && page < pages) msg.append(Text.literal(" "));
+            if (page < pages) msg.append(pageLink(">>", command + (page + 1), page + 1));
+        }
+        return msg;
+    }
+
+    private static Text pageLink(String label, String command, int page) {
+        return Text.literal(label).styled(s -> s
+                .withColor(0x55ffff)
+                .withClickEvent(new ClickEvent(ClickEvent.Action.RUN_COMMAND, command))
+                .withHoverEvent(new HoverEvent(HoverEvent.Action.SHOW_TEXT, Text.literal("Page " + page))));
+    }
+
+    /**
+     * Lists the visible warps within {@code radius} blocks of the player, closest first.
+     */
+    private static int listNearby(ServerCommandSource src, int radius) {
+        var player = src.getPlayer();
+        if (player == null) {
+            src.sendError(Text.literal("[Simply Better Warps] Only players can list nearby warps."));
+            return 0;
+        }
+        var hits = WarpSpatialIndex.get().within(WarpDimension.of(player.getWorld().getRegistryKey()),
+                player.getX(), player.getY(), player.getZ(), radius, name -> canSeeWarp(src, name));
+        if (hits.isEmpty()) {
+            src.sendFeedback(() -> Text.literal("[Simply Better Warps] No visible warp within %d blocks.".formatted(radius)), false);
+            return 1;
+        }
+
+        List<Text> entries = new ArrayList<>();
+        for (var hit : hits.subList(0, Math.min(hits.size(), MAX_NEAR_RESULTS))) {
+            entries.add(Text.empty().append(warpEntry(src, hit.name()))
+                    .append(Text.literal(" (%dm)".formatted(Math.round(hit.distance())))));
+        }
+        String more = hits.size() > MAX_NEAR_RESULTS ? " (closest %d shown)".formatted(MAX_NEAR_RESULTS) : "";
+        Text msg = Text.literal("[Simply Better Warps] Warps within %d blocks (%d)%s: ".formatted(radius, hits.size(), more))
+                .append(joinEntries(entries));
+        src.sendFeedback(() -> msg, false);
+        return hits.size();
+    }
+
+    /**
+     * Starts an import from config/simplybetter/transfer and reports progress and the outcome to the source.
+     */
+    private static int importWarps(ServerCommandSource source, String fileName, WarpTransfer.Mode mode, boolean dryRun) {
+        var server = source.getServer();
+        Path file;
+        try {
+            file = WarpTransfer.get().resolve(fileName);
+        } catch (IllegalArgumentException e) {
+            source.sendError(Text.literal("[Simply Better Warps] " + e.getMessage()));
+            return 0;
+        }
+        if (!Files.isRegularFile(file)) {
+            source.sendError(Text.literal("[Simply Better Warps] No such file: " + WarpTransfer.DIRECTORY.resolve(fileName)));
+            return 0;
+        }
+        String verb = dryRun ? "Checking" : "Importing";
+        source.sendFeedback(() -> Text.literal("[Simply Better Warps] %s %s (%s)...".formatted(verb, file.getFileName(),
+                mode.name().toLowerCase(Locale.ROOT))), true);
+        WarpTransfer.get().importWarps(server, file, mode, dryRun,
+                        status -> server.execute(() -> source.sendFeedback(() -> Text.literal("[Simply Better Warps] " + status), false)))
+                .whenCompleteAsync((result, error) -> {
+                    if (error != null) {
+                        Throwable cause = error.getCause() != null ? error.getCause() : error;
+                        LOGGER.error("[Simply Better Warps] Failed to import warps from {}", file, cause);
+                        source.sendError(Text.literal("[Simply Better Warps] Import failed: " + cause.getMessage()));
+                    } else {
+                        String prefix = result.dryRun() ? "Dry run, nothing changed: " : "Import done: ";
+                        source.sendFeedback(() -> Text.literal("[Simply Better Warps] " + prefix + result), true);
+                    }
+                }, server);
+        return 1;
+    }
+
+    /**
+     * Starts an export to config/simplybetter/transfer, in the given format or the one of the file extension.
+     */
+    private static int exportWarps(ServerCommandSource source, String fileName, WarpTransfer.Format format) {
+        Path file;
+        try {
+            file = WarpTransfer.get().resolve(fileName);
+        } catch (IllegalArgumentException e) {
+            source.sendError(Text.literal("[Simply Better Warps] " + e.getMessage()));
+            return 0;
+        }
+        WarpTransfer.Format chosen = format != null ? format : WarpTransfer.Format.of(file);
+        WarpTransfer.get().exportWarps(file, chosen).whenCompleteAsync((count, error) -> {
+            if (error != null) {
+                Throwable cause = error.getCause() != null ? error.getCause() : error;
+                LOGGER.error("[Simply Better Warps] Failed to export warps to {}", file, cause);
+                source.sendError(Text.literal("[Simply Better Warps] Export failed: " + cause.getMessage()));
+            } else {
+                source.sendFeedback(() -> Text.literal("[Simply Better Warps] Exported %d warps to %s".formatted(count,
+                        WarpTransfer.DIRECTORY.resolve(fileName))), true);
+            }
+        }, source.getServer());
+        return 1;
+    }
+
+    /**
+     * Moves every warp of {@code group} to {@code newGroup} (null: no group) in one change.
+     *
+     * @return number of warps moved
+     */
+    private static int regroup(String group, String newGroup) {
+        Map<String, WarpPoint> moved = new HashMap<>();
+        WarpManager.get().snapshot().warps().forEach((name, wp) -> {
+            if (group.equals(wp.group())) moved.put(name, wp.withGroup(newGroup));
+        });
+        WarpManager.get().setWarps(moved);
+        return moved.size();
+    }
+
+    private static WarpDimension dimensionArgument(CommandContext<ServerCommandSource> ctx) throws CommandSyntaxException {
+        return WarpDimension.of(DimensionArgumentType.getDimensionArgument(ctx, "dimension").getRegistryKey());
     }
 
     /**
@@ -84,8 +518,15 @@ public final class WarpCommands {
                                     [Simply Better Warps] Commands:
                     /warp <name>      - teleport to a warp in the current dimension
                     /setwarp <name>   - create or overwrite a warp at your position
+                    /setwarp <name> private - save a private warp only you can use
                     /delwarp <name>   - delete a warp in the current dimension
-                    /warps            - list warps in the current dimension
+                    /warps [page]     - list warps, page by page
+                    /warps <dim> [page] - list warps of one dimension
+                    /warps near [r]   - list warps within r blocks of you
+                    /warps private    - list your private warps
+                    /warps group <g> [page] - list the warps of a group
+                    /warpnearest      - teleport to the closest warp you can use
+                    /warpsearch <text> - find warps by approximate name
                     /warp help        - show this help
                     """), false);
             return 1;
@@ -98,39 +539,26 @@ public final class WarpCommands {
                 source.sendError(Text.literal("Only players can use warps."));
                 return 0;
             }
-            String warpName = StringArgumentType.getString(ctx, "name");
+            return teleportTo(source, player, StringArgumentType.getString(ctx, "name"));
+        };
 
-            if (!canTpToWarp(source, warpName)) {
-                source.sendError(Text.literal("[Simply Better Warps] You don't have permission to teleport to '" + warpName + "'."));
+        Command<ServerCommandSource> NEAREST_EXECUTOR = ctx -> {
+            var source = ctx.getSource();
+            var player = source.getPlayer();
+            if (player == null) {
+                source.sendError(Text.literal("Only players can use warps."));
                 return 0;
             }
-
-            var wManager = WarpManager.get();
-            try {
-                WarpPoint wp = wManager.getWarp(warpName);
-                Identifier dimId = Identifier.tryParse(wp.dimensionId());
-                if (dimId == null) {
-                    source.sendError(Text.literal("Invalid dimension id on warp: " + wp.dimensionId()));
-                    return 0;
-                }
-                RegistryKey<World> targetKey = RegistryKey.of(RegistryKeys.WORLD, dimId);
-                ServerWorld targetWorld = Objects.requireNonNull(player.getServer()).getWorld(targetKey);
-                if (targetWorld == null) {
-                    source.sendError(Text.literal("Target dimension not found on server: " + wp.dimensionId()));
-                    return 0;
-                }
-                BlockPos targetPos = BlockPos.ofFloored(wp.x(), wp.y(), wp.z());
-                ChunkPos chunkPos = new ChunkPos(targetPos);
-                targetWorld.getChunkManager().addTicket(ChunkTicketType.POST_TELEPORT, chunkPos, 1, player.getId());
-                targetWorld.getChunk(chunkPos.x, chunkPos.z);
-                player.teleport(targetWorld, wp.x(), wp.y(), wp.z(), wp.yaw(), wp.pitch());
-                source.sendFeedback(() -> Text.literal("Teleported to '" + warpName + "' in " + wp.dimensionId() + "."), false);
-                return 1;
-            } catch (Exception e) {
-                source.sendError(Text.literal(e.getMessage()));
-                LOGGER.error("[Simply Better Warps] Error during warp teleport:{}", e.getMessage(), e);
+            var hits = WarpSpatialIndex.get().nearest(WarpDimension.of(player.getWorld().getRegistryKey()),
+                    player.getX(), player.getY(), player.getZ(), 1,
+                    name -> canSeeWarp(source, name) && canTpToWarp(source, name));
+            if (hits.isEmpty()) {
+                source.sendError(Text.literal("[Simply Better Warps] No warp you can use in this dimension."));
                 return 0;
             }
+            // straight to the warp the index found: a private warp of the same name must not take its place
+            var hit = hits.get(0);
+            return scheduleTeleport(source, player, hit.name(), hit.point(), false);
         };
 
         Command<ServerCommandSource> SETWARP_EXECUTOR = ctx -> {
@@ -140,16 +568,56 @@ public final class WarpCommands {
                 ctx.getSource().sendError(Text.literal("[Simply Better Warps] Only players can set warps."));
                 return 0;
             }
-            WarpPoint wp = WarpPoint.fromPlayerPosition(p);
+            if (!Permissions.check(ctx.getSource(), "simplybetter.warps.setwarp", 1)) {
+                ctx.getSource().sendError(Text.literal("[Simply Better Warps] You can only set private warps: /setwarp " + warpName + " private"));
+                return 0;
+            }
             var wManager = WarpManager.get();
+            // moving an existing warp keeps it in its group
+            WarpPoint existing = wManager.snapshot().get(warpName.toLowerCase(Locale.ROOT));
+            WarpPoint wp = WarpPoint.fromPlayerPosition(p).withGroup(existing == null ? null : existing.group());
             wManager.setWarp(warpName, wp);
             ctx.getSource().sendFeedback(() -> Text.literal("[Simply Better Warps] Warp '%s' saved. at %s%s".formatted(
                     warpName, wp.dimensionId(), String.format(" (%.1f, %.1f, %.1f)", wp.x(), wp.y(), wp.z()))), false);
             return 1;
         };
 
+        Command<ServerCommandSource> SETWARP_PRIVATE_EXECUTOR = ctx -> {
+            ServerPlayerEntity p = ctx.getSource().getPlayer();
+            String warpName = StringArgumentType.getString(ctx, "name");
+            if (p == null) {
+                ctx.getSource().sendError(Text.literal("[Simply Better Warps] Only players can set warps."));
+                return 0;
+            }
+            var store = PrivateWarpStore.get();
+            if (!store.isLoaded(p.getUuid())) {
+                sendPrivateUnavailable(ctx.getSource(), p.getUuid());
+                return 0;
+            }
+            int limit = WarpConfig.get().privateWarps.maxPerPlayer;
+            WarpPoint wp = WarpPoint.fromPlayerPosition(p);
+            if (!store.set(p.getUuid(), warpName, wp, limit)) {
+                ctx.getSource().sendError(Text.literal("[Simply Better Warps] You already have %d private warps, delete one first.".formatted(limit)));
+                return 0;
+            }
+            ctx.getSource().sendFeedback(() -> Text.literal("[Simply Better Warps] Private warp '%s' saved. at %s%s".formatted(
+                    warpName, wp.dimensionId(), String.format(" (%.1f, %.1f, %.1f)", wp.x(), wp.y(), wp.z()))), false);
+            return 1;
+        };
+
         Command<ServerCommandSource> DELWARP_EXECUTOR = ctx -> {
             String warpName = StringArgumentType.getString(ctx, "name");
+            var player = ctx.getSource().getPlayer();
+            // the player's own private warp shadows a global one, as in /warp
+            if (player != null && PrivateWarpStore.get().delete(player.getUuid(), warpName)) {
+                WarpScheduler.get().cancelWarmup(player.getUuid(), warpName, "the warp was deleted");
+                ctx.getSource().sendFeedback(() -> Text.literal("[Simply Better Warps] Private warp deleted: " + warpName), false);
+                return 1;
+            }
+            if (!Permissions.check(ctx.getSource(), "simplybetter.warps.delwarp", 1)) {
+                ctx.getSource().sendError(Text.literal("[Simply Better Warps] You have no private warp named '" + warpName + "'."));
+                return 0;
+            }
             boolean ok = WarpManager.get().delWarp(warpName);
             if (ok) {
                 ctx.getSource().sendFeedback(() -> Text.literal("[Simply Better Warps] Warp deleted: " + warpName), false);
@@ -160,59 +628,6 @@ public final class WarpCommands {
             }
         };
 
-        Command<ServerCommandSource> LIST_EXECUTOR = ctx -> {
-            var src = ctx.getSource();
-            var names = WarpManager.get().listWarps().keySet().stream()
-                    .filter(name -> canSeeWarp(src, name))
-                    .sorted()
-                    .toList();
-
-            if (names.isEmpty()) {
-                src.sendFeedback(() -> Text.literal("[Simply Better Warps] Aucun warp visible."), false);
-                return 1;
-            }
-
-            List<Text> clickable = new ArrayList<>();
-            for (String name : names) {
-                boolean canTp = canTpToWarp(src, name);
-
-                MutableText item = Text.literal(name);
-
-                if (canTp) {
-                    item = item.styled(s -> s
-                            .withUnderline(true)
-                            .withClickEvent(new ClickEvent(ClickEvent.Action.RUN_COMMAND, "/warp " + name))
-                            .withHoverEvent(new HoverEvent(HoverEvent.Action.SHOW_TEXT,
-                                    Text.literal("Clique pour /warp " + name))));
-                } else {
-                    item = item.styled(s -> s
-                            .withItalic(true)
-                            .withColor(0x7f7f7f)
-                            .withHoverEvent(new HoverEvent(HoverEvent.Action.SHOW_TEXT,
-                                    Text.literal("Tu n'as pas la permission de /warp " + name))));
-                }
-
-                clickable.add(item);
-            }
-
-            Text listText;
-            try {
-                listText = Texts.join(clickable, Text.literal(", "));
-            } catch (Throwable ignored) {
-                // Fallback si mappings diffèrent : construire manuellement
-                MutableText tmp = Text.empty();
-                for (int i = 0; i < clickable.size(); i++) {
-                    if (i > 0) tmp.append(Text.literal(", "));
-                    tmp.append(clickable.get(i));
-                }
-                listText = tmp;
-            }
-
-            Text msg = Text.literal("[Simply Better Warps] Warps (" + names.size() + "): ").append(listText);
-            src.sendFeedback(() -> msg, false);
-            return 1;
-        };
-
         Command<ServerCommandSource> INFO_EXECUTOR = ctx -> {
             var source = ctx.getSource();
             String warpName = StringArgumentType.getString(ctx, "name");
@@ -226,6 +641,9 @@ public final class WarpCommands {
                     .append(Text.literal("': "))
                     .append(Text.literal(String.format("Dimension: %s, Position: (%.1f, %.1f, %.1f), Yaw: %.1f, Pitch: %.1f",
                             warp.dimensionId(), warp.x(), warp.y(), warp.z(), warp.yaw(), warp.pitch())));
+            if (warp.group() != null) {
+                msg.append(Text.literal(", Group: " + warp.group()));
+            }
             source.sendFeedback(() -> msg, false);
             return 1;
         };
@@ -245,6 +663,194 @@ public final class WarpCommands {
             }
         };
 
+        Command<ServerCommandSource> GROUP_LIST_EXECUTOR = ctx -> {
+            var groups = WarpGroups.get().groups();
+            if (groups.isEmpty()) {
+                ctx.getSource().sendFeedback(() -> Text.literal("[Simply Better Warps] No warp groups yet. Add one with /warpgroup add <warp> <group>."), false);
+                return 1;
+            }
+            StringJoiner joiner = new StringJoiner(", ");
+            groups.forEach((group, count) -> joiner.add(group + " (" + count + ")"));
+            ctx.getSource().sendFeedback(() -> Text.literal("[Simply Better Warps] Warp groups (%d): %s".formatted(groups.size(), joiner)), false);
+            return groups.size();
+        };
+
+        Command<ServerCommandSource> GROUP_ADD_EXECUTOR = ctx -> {
+            String warpName = StringArgumentType.getString(ctx, "name");
+            String group = StringArgumentType.getString(ctx, "group").toLowerCase(Locale.ROOT);
+            var wManager = WarpManager.get();
+            WarpPoint wp = wManager.snapshot().get(warpName.toLowerCase(Locale.ROOT));
+            if (wp == null) {
+                ctx.getSource().sendError(Text.literal("[Simply Better Warps] Warp not found: " + warpName));
+                return 0;
+            }
+            wManager.setWarp(warpName, wp.withGroup(group));
+            ctx.getSource().sendFeedback(() -> Text.literal("[Simply Better Warps] Warp '%s' is now in group '%s'.".formatted(warpName, group)), true);
+            return 1;
+        };
+
+        Command<ServerCommandSource> GROUP_REMOVE_EXECUTOR = ctx -> {
+            String warpName = StringArgumentType.getString(ctx, "name");
+            var wManager = WarpManager.get();
+            WarpPoint wp = wManager.snapshot().get(warpName.toLowerCase(Locale.ROOT));
+            if (wp == null || wp.group() == null) {
+                ctx.getSource().sendError(Text.literal("[Simply Better Warps] Warp '%s' is not in a group.".formatted(warpName)));
+                return 0;
+            }
+            wManager.setWarp(warpName, wp.withGroup(null));
+            ctx.getSource().sendFeedback(() -> Text.literal("[Simply Better Warps] Warp '%s' removed from group '%s'.".formatted(warpName, wp.group())), true);
+            return 1;
+        };
+
+        Command<ServerCommandSource> GROUP_RENAME_EXECUTOR = ctx -> {
+            String group = StringArgumentType.getString(ctx, "group").toLowerCase(Locale.ROOT);
+            String newGroup = StringArgumentType.getString(ctx, "newgroup").toLowerCase(Locale.ROOT);
+            int moved = regroup(group, newGroup);
+            if (moved == 0) {
+                ctx.getSource().sendError(Text.literal("[Simply Better Warps] Group not found: " + group));
+                return 0;
+            }
+            ctx.getSource().sendFeedback(() -> Text.literal("[Simply Better Warps] Group '%s' renamed to '%s' (%d warps).".formatted(group, newGroup, moved)), true);
+            ctx.getSource().sendFeedback(() -> Text.literal("[Simply Better Warps] Note: Permissions are not automatically updated. Change them manually from '%s' to '%s'.".formatted(group, newGroup)), false);
+            return moved;
+        };
+
+        Command<ServerCommandSource> GROUP_DELETE_EXECUTOR = ctx -> {
+            String group = StringArgumentType.getString(ctx, "group").toLowerCase(Locale.ROOT);
+            int moved = regroup(group, null);
+            if (moved == 0) {
+                ctx.getSource().sendError(Text.literal("[Simply Better Warps] Group not found: " + group));
+                return 0;
+            }
+            ctx.getSource().sendFeedback(() -> Text.literal("[Simply Better Warps] Group '%s' deleted, its %d warps are ungrouped.".formatted(group, moved)), true);
+            return moved;
+        };
+
+        Command<ServerCommandSource> HOTWARPS_LIST_EXECUTOR = ctx -> {
+            var tracker = HotWarpTracker.get();
+            var cfg = WarpConfig.get().hotWarps;
+            var names = tracker.hotWarps().stream().sorted().toList();
+            StringBuilder sb = new StringBuilder("[Simply Better Warps] Hot warps (%d, %d/%d chunks, automatic: %s):"
+                    .formatted(names.size(), tracker.heldChunks(), cfg.chunkBudget, cfg.automatic));
+            for (String name : names) {
+                sb.append("\n - ").append(name)
+                        .append(cfg.pinned.contains(name) ? " (pinned)" : "")
+                        .append(String.format(" %.1f uses/h", tracker.usesPerHour(name)));
+            }
+            ctx.getSource().sendFeedback(() -> Text.literal(sb.toString()), false);
+            return 1;
+        };
+
+        Command<ServerCommandSource> HOTWARPS_PIN_EXECUTOR = ctx -> {
+            String warpName = StringArgumentType.getString(ctx, "name").toLowerCase(Locale.ROOT);
+            try {
+                WarpManager.get().getWarp(warpName);
+            } catch (IllegalArgumentException e) {
+                ctx.getSource().sendError(Text.literal("[Simply Better Warps] " + e.getMessage()));
+                return 0;
+            }
+            var pinned = WarpConfig.get().hotWarps.pinned;
+            if (!pinned.contains(warpName)) {
+                pinned.add(warpName);
+                WarpConfig.save();
+            }
+            HotWarpTracker.get().refresh();
+            ctx.getSource().sendFeedback(() -> Text.literal("[Simply Better Warps] Warp '%s' is pinned and kept loaded.".formatted(warpName)), true);
+            return 1;
+        };
+
+        Command<ServerCommandSource> HOTWARPS_UNPIN_EXECUTOR = ctx -> {
+            String warpName = StringArgumentType.getString(ctx, "name").toLowerCase(Locale.ROOT);
+            if (!WarpConfig.get().hotWarps.pinned.remove(warpName)) {
+                ctx.getSource().sendError(Text.literal("[Simply Better Warps] Warp '%s' is not pinned.".formatted(warpName)));
+                return 0;
+            }
+            WarpConfig.save();
+            HotWarpTracker.get().refresh();
+            ctx.getSource().sendFeedback(() -> Text.literal("[Simply Better Warps] Warp '%s' unpinned.".formatted(warpName)), true);
+            return 1;
+        };
+
+        Command<ServerCommandSource> EXPORTJSON_EXECUTOR = ctx -> {
+            var source = ctx.getSource();
+            var server = source.getServer();
+            // serializing a large registry takes a while, keep it off the server thread
+            CompletableFuture.supplyAsync(() -> {
+                try {
+                    return WarpManager.get().exportJson();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }).whenCompleteAsync((path, error) -> {
+                if (error != null) {
+                    LOGGER.error("[Simply Better Warps] Failed to export warps", error);
+                    source.sendError(Text.literal("[Simply Better Warps] Export failed: " + error.getCause().getMessage()));
+                } else {
+                    source.sendFeedback(() -> Text.literal("[Simply Better Warps] Warps exported to " + path), true);
+                }
+            }, server);
+            return 1;
+        };
+
+        Command<ServerCommandSource> WARPSTATS_EXECUTOR = ctx -> {
+            var metrics = WarpMetrics.get();
+            var teleporter = WarpTeleporter.get();
+            StringBuilder sb = new StringBuilder("[Simply Better Warps] Stats (%d warps):".formatted(WarpManager.get().snapshot().size()));
+            for (WarpMetrics.Timer timer : WarpMetrics.Timer.values()) {
+                LatencyHistogram h = metrics.timer(timer);
+                if (h.count() == 0) continue;
+                sb.append("\n - %s: %d, mean %.2f ms, p50 %.2f ms, p99 %.2f ms, max %.2f ms".formatted(
+                        timer.name().toLowerCase(Locale.ROOT), h.count(), WarpMetrics.millis(h.meanNanos()),
+                        WarpMetrics.millis(h.percentileNanos(50)), WarpMetrics.millis(h.percentileNanos(99)),
+                        WarpMetrics.millis(h.maxNanos())));
+            }
+            sb.append("\n - queue: %d pending over %d chunks, %d teleports last tick (max %d), %d timeouts, %d cancelled".formatted(
+                    teleporter.pendingCount(), teleporter.pendingDestinations(), metrics.lastTickTeleports(),
+                    metrics.maxTickTeleports(), metrics.count(WarpMetrics.Counter.TELEPORT_TIMEOUTS),
+                    metrics.count(WarpMetrics.Counter.TELEPORT_CANCELLATIONS)));
+            sb.append("\n - warmups: %d pending, %d cancelled; cooldowns: %d active, %d rejected".formatted(
+                    WarpScheduler.get().pendingWarmupCount(), metrics.count(WarpMetrics.Counter.WARMUP_CANCELLATIONS),
+                    WarpScheduler.get().activeCooldowns(), metrics.count(WarpMetrics.Counter.COOLDOWN_REJECTIONS)));
+            sb.append("\n - storage: %.1f KB, %d snapshots queued, %d errors, %d warps set, %d removed".formatted(
+                    metrics.getStorageBytes() / 1024d, metrics.getSnapshotQueueDepth(), metrics.count(WarpMetrics.Counter.STORAGE_ERRORS),
+                    metrics.count(WarpMetrics.Counter.WARPS_SET), metrics.count(WarpMetrics.Counter.WARPS_REMOVED)));
+            var top = metrics.topWarps(5);
+            if (!top.isEmpty()) {
+                sb.append("\n - top warps: ");
+                StringJoiner joiner = new StringJoiner(", ");
+                top.forEach((name, uses) -> joiner.add(name + " (" + uses + ")"));
+                sb.append(joiner);
+            }
+            ctx.getSource().sendFeedback(() -> Text.literal(sb.toString()), false);
+            return 1;
+        };
+
+        Command<ServerCommandSource> PENDING_EXECUTOR = ctx -> {
+            var scheduler = WarpScheduler.get();
+            var pending = scheduler.pendingWarmups();
+            var players = ctx.getSource().getServer().getPlayerManager();
+            StringBuilder sb = new StringBuilder("[Simply Better Warps] %d warmups pending, %d queued teleports, %d active cooldowns"
+                    .formatted(pending.size(), WarpTeleporter.get().pendingCount(), scheduler.activeCooldowns()));
+            for (var warmup : pending.subList(0, Math.min(pending.size(), MAX_PENDING_LISTED))) {
+                var player = players.getPlayer(warmup.player());
+                String name = player == null ? warmup.player().toString() : player.getGameProfile().getName();
+                sb.append("\n - %s -> %s in %.1fs".formatted(name, warmup.warpName(), warmup.remainingTicks() / 20d));
+            }
+            if (pending.size() > MAX_PENDING_LISTED) {
+                sb.append("\n ... and %d more".formatted(pending.size() - MAX_PENDING_LISTED));
+            }
+            ctx.getSource().sendFeedback(() -> Text.literal(sb.toString()), false);
+            return pending.size();
+        };
+
+        Command<ServerCommandSource> CLEARCOOLDOWNS_EXECUTOR = ctx -> {
+            var target = EntityArgumentType.getPlayer(ctx, "player");
+            int cleared = WarpScheduler.get().clearCooldowns(target.getUuid());
+            String name = target.getGameProfile().getName();
+            ctx.getSource().sendFeedback(() -> Text.literal("[Simply Better Warps] Cleared %d cooldowns of %s.".formatted(cleared, name)), true);
+            return cleared;
+        };
+
         // ----- Command registrations -----
 
         // /simplybetterwarps -> usage hint
@@ -257,6 +863,13 @@ public final class WarpCommands {
                         })
         );
 
+        // /warpnearest, its own command so that a warp named "nearest" stays reachable with /warp nearest
+        dispatcher.register(
+                literal("warpnearest")
+                        .requires(src -> Permissions.check(src, "simplybetter.warps.nearest", 1))
+                        .executes(NEAREST_EXECUTOR)
+        );
+
         // /warp, /warp help, /warp <name>
         dispatcher.register(
                 literal("warp")
@@ -273,6 +886,15 @@ public final class WarpCommands {
                         )
         );
 
+        // /warpsearch <text>
+        dispatcher.register(
+                literal("warpsearch")
+                        .requires(src -> Permissions.check(src, "simplybetter.warps.search", 1))
+                        .then(argument("text", StringArgumentType.word())
+                                .executes(ctx -> searchWarps(ctx.getSource(), StringArgumentType.getString(ctx, "text")))
+                        )
+        );
+
         // /warpinfo <name>
         dispatcher.register(
                 literal("warpinfo")
@@ -299,28 +921,178 @@ public final class WarpCommands {
         // /setwarp <name>
         dispatcher.register(
                 literal("setwarp")
-                        .requires(src -> Permissions.check(src, "simplybetter.warps.setwarp", 1))
+                        .requires(src -> Permissions.check(src, "simplybetter.warps.setwarp", 1)
+                                || Permissions.check(src, "simplybetter.warps.private", 1))
                         .then(argument("name", StringArgumentType.word())
                                 .suggests(WARP_NAME_SUGGESTER)
                                 .executes(SETWARP_EXECUTOR)
+                                .then(literal("private")
+                                        .requires(src -> Permissions.check(src, "simplybetter.warps.private", 1))
+                                        .executes(SETWARP_PRIVATE_EXECUTOR)
+                                )
                         )
         );
 
         // /delwarp <name>
         dispatcher.register(
                 literal("delwarp")
-                        .requires(src -> Permissions.check(src, "simplybetter.warps.delwarp", 1))
+                        .requires(src -> Permissions.check(src, "simplybetter.warps.delwarp", 1)
+                                || Permissions.check(src, "simplybetter.warps.private", 1))
                         .then(argument("name", StringArgumentType.word())
                                 .suggests(WARP_NAME_SUGGESTER)
                                 .executes(DELWARP_EXECUTOR)
                         )
         );
 
-        // /warps
+        // /warps [page], /warps <dimension> [page], /warps near [radius]
         dispatcher.register(
                 literal("warps")
                         .requires(src -> Permissions.check(src, "simplybetter.warps.basic", 1))
-                        .executes(LIST_EXECUTOR)
+                        .executes(ctx -> listWarps(ctx.getSource(), null, null, 1))
+                        // before the dimension argument, so a bare number is read as a page
+                        .then(argument("page", IntegerArgumentType.integer(1))
+                                .executes(ctx -> listWarps(ctx.getSource(), null, null, IntegerArgumentType.getInteger(ctx, "page")))
+                        )
+                        .then(argument("dimension", DimensionArgumentType.dimension())
+                                .executes(ctx -> listWarps(ctx.getSource(), dimensionArgument(ctx), null, 1))
+                                .then(argument("page", IntegerArgumentType.integer(1))
+                                        .executes(ctx -> listWarps(ctx.getSource(), dimensionArgument(ctx), null,
+                                                IntegerArgumentType.getInteger(ctx, "page")))
+                                )
+                        )
+                        .then(literal("private")
+                                .requires(src -> Permissions.check(src, "simplybetter.warps.private", 1))
+                                .executes(ctx -> listPrivateWarps(ctx.getSource()))
+                        )
+                        .then(literal("group")
+                                .then(argument("group", StringArgumentType.word())
+                                        .suggests(GROUP_SUGGESTER)
+                                        .executes(ctx -> listWarps(ctx.getSource(), null,
+                                                StringArgumentType.getString(ctx, "group").toLowerCase(Locale.ROOT), 1))
+                                        .then(argument("page", IntegerArgumentType.integer(1))
+                                                .executes(ctx -> listWarps(ctx.getSource(), null,
+                                                        StringArgumentType.getString(ctx, "group").toLowerCase(Locale.ROOT),
+                                                        IntegerArgumentType.getInteger(ctx, "page")))
+                                        )
+                                )
+                        )
+                        .then(literal("near")
+                                .requires(src -> Permissions.check(src, "simplybetter.warps.near", 1))
+                                .executes(ctx -> listNearby(ctx.getSource(), DEFAULT_NEAR_RADIUS))
+                                .then(argument("radius", IntegerArgumentType.integer(1, MAX_NEAR_RADIUS))
+                                        .executes(ctx -> listNearby(ctx.getSource(), IntegerArgumentType.getInteger(ctx, "radius")))
+                                )
+                        )
+        );
+
+        // /warpgroup list, add <name> <group>, remove <name>, rename <group> <newgroup>, delete <group>
+        dispatcher.register(
+                literal("warpgroup")
+                        .requires(src -> Permissions.check(src, "simplybetter.warps.groups", 3))
+                        .executes(GROUP_LIST_EXECUTOR)
+                        .then(literal("list")
+                                .executes(GROUP_LIST_EXECUTOR)
+                        )
+                        .then(literal("add")
+                                .then(argument("name", StringArgumentType.word())
+                                        .suggests(WARP_NAME_SUGGESTER)
+                                        .then(argument("group", StringArgumentType.word())
+                                                .suggests(GROUP_SUGGESTER)
+                                                .executes(GROUP_ADD_EXECUTOR)
+                                        )
+                                )
+                        )
+                        .then(literal("remove")
+                                .then(argument("name", StringArgumentType.word())
+                                        .suggests(WARP_NAME_SUGGESTER)
+                                        .executes(GROUP_REMOVE_EXECUTOR)
+                                )
+                        )
+                        .then(literal("rename")
+                                .then(argument("group", StringArgumentType.word())
+                                        .suggests(GROUP_SUGGESTER)
+                                        .then(argument("newgroup", StringArgumentType.word())
+                                                .executes(GROUP_RENAME_EXECUTOR)
+                                        )
+                                )
+                        )
+                        .then(literal("delete")
+                                .then(argument("group", StringArgumentType.word())
+                                        .suggests(GROUP_SUGGESTER)
+                                        .executes(GROUP_DELETE_EXECUTOR)
+                                )
+                        )
+        );
+
+        // /hotwarps, /hotwarps pin <name>, /hotwarps unpin <name>
+        dispatcher.register(
+                literal("hotwarps")
+                        .requires(src -> Permissions.check(src, "simplybetter.warps.hotwarps", 3))
+                        .executes(HOTWARPS_LIST_EXECUTOR)
+                        .then(literal("pin")
+                                .then(argument("name", StringArgumentType.word())
+                                        .suggests(WARP_NAME_SUGGESTER)
+                                        .executes(HOTWARPS_PIN_EXECUTOR)
+                                )
+                        )
+                        .then(literal("unpin")
+                                .then(argument("name", StringArgumentType.word())
+                                        .suggests(WARP_NAME_SUGGESTER)
+                                        .executes(HOTWARPS_UNPIN_EXECUTOR)
+                                )
+                        )
+        );
+
+        // /warpstats
+        dispatcher.register(
+                literal("warpstats")
+                        .requires(src -> Permissions.check(src, "simplybetter.warps.stats", 3))
+                        .executes(WARPSTATS_EXECUTOR)
+        );
+
+        // /warpadmin exportjson, /warpadmin pending, /warpadmin clearcooldowns <player>, /warpadmin import <file> [merge|replace] [dryrun], /warpadmin export <file> [json|csv]
+        dispatcher.register(
+                literal("warpadmin")
+                        .requires(src -> Permissions.check(src, "simplybetter.warps.admin", 3))
+                        .then(literal("exportjson")
+                                .executes(EXPORTJSON_EXECUTOR)
+                        )
+                        .then(literal("pending")
+                                .executes(PENDING_EXECUTOR)
+                        )
+                        .then(literal("clearcooldowns")
+                                .then(argument("player", EntityArgumentType.player())
+                                        .executes(CLEARCOOLDOWNS_EXECUTOR)
+                                )
+                        )
+                        .then(literal("import")
+                                .then(argument("file", StringArgumentType.string())
+                                        .executes(ctx -> importWarps(ctx.getSource(), StringArgumentType.getString(ctx, "file"), WarpTransfer.Mode.MERGE, false))
+                                        .then(literal("merge")
+                                                .executes(ctx -> importWarps(ctx.getSource(), StringArgumentType.getString(ctx, "file"), WarpTransfer.Mode.MERGE, false))
+                                                .then(literal("dryrun")
+                                                        .executes(ctx -> importWarps(ctx.getSource(), StringArgumentType.getString(ctx, "file"), WarpTransfer.Mode.MERGE, true))
+                                                )
+                                        )
+                                        .then(literal("replace")
+                                                .executes(ctx -> importWarps(ctx.getSource(), StringArgumentType.getString(ctx, "file"), WarpTransfer.Mode.REPLACE, false))
+                                                .then(literal("dryrun")
+                                                        .executes(ctx -> importWarps(ctx.getSource(), StringArgumentType.getString(ctx, "file"), WarpTransfer.Mode.REPLACE, true))
+                                                )
+                                        )
+                                )
+                        )
+                        .then(literal("export")
+                                .then(argument("file", StringArgumentType.string())
+                                        .executes(ctx -> exportWarps(ctx.getSource(), StringArgumentType.getString(ctx, "file"), null))
+                                        .then(literal("json")
+                                                .executes(ctx -> exportWarps(ctx.getSource(), StringArgumentType.getString(ctx, "file"), WarpTransfer.Format.JSON))
+                                        )
+                                        .then(literal("csv")
+                                                .executes(ctx -> exportWarps(ctx.getSource(), StringArgumentType.getString(ctx, "file"), WarpTransfer.Format.CSV))
+                                        )
+                                )
+                        )
         );
     }
 }
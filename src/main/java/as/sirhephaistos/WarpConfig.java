@@ -0,0 +1,187 @@
+package as.sirhephaistos;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Mod settings, stored in config/simplybetter/config.json.
+ * Missing keys keep their defaults and the file is rewritten on load, so new settings show up automatically.
+ */
+public final class WarpConfig {
+    private static final Logger LOGGER = LoggerFactory.getLogger("simplybetter-warps");
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    private static volatile WarpConfig current = new WarpConfig();
+
+    /**
+     * Wait for the destination chunk to load off-tick before teleporting, instead of loading it on the server thread.
+     */
+    public boolean asyncChunkLoading = true;
+    /**
+     * How long a teleport may wait for its destination chunk before it is abandoned.
+     */
+    public int chunkLoadTimeoutSeconds = 10;
+    /**
+     * Where warps are stored: "file" (snapshot file plus journal) or "sqlite" (warps.db, one row per warp).
+     * Switching from file to sqlite imports the existing file on the next start.
+     */
+    public WarpStorage.Backend storageBackend = WarpStorage.Backend.FILE;
+    /**
+     * Snapshot file format of the file backend: "json" (warps.json, hand-editable) or "binary" (warps.bin, faster to load).
+     * Switching formats migrates the existing file on the next start.
+     */
+    public WarpFileFormat storageFormat = WarpFileFormat.JSON;
+    /**
+     * Apply external edits of the snapshot file while the server runs, instead of overwriting them on the next save.
+     * Only used by the file backend.
+     */
+    public boolean watchWarpFile = true;
+    public HotWarps hotWarps = new HotWarps();
+    public TeleportQueue teleportQueue = new TeleportQueue();
+    public Metrics metrics = new Metrics();
+    public PrivateWarps privateWarps = new PrivateWarps();
+    public Warmup warmup = new Warmup();
+    public Cooldown cooldown = new Cooldown();
+
+    /**
+     * Settings for keeping the destination chunks of popular warps loaded.
+     */
+    public static final class HotWarps {
+        /**
+         * Pick hot warps from usage counters, in addition to the pinned ones.
+         */
+        public boolean automatic = false;
+        /**
+         * Maximum number of destination chunks kept loaded at once.
+         */
+        public int chunkBudget = 16;
+        /**
+         * Decayed uses per hour a warp needs before it is kept loaded automatically.
+         */
+        public double minUsesPerHour = 20;
+        /**
+         * How often the hot set is recomputed.
+         */
+        public int refreshIntervalSeconds = 60;
+        /**
+         * Warps that are always kept loaded (within the budget), whatever their usage.
+         */
+        public List<String> pinned = new ArrayList<>();
+    }
+
+    /**
+     * Settings for the server-wide teleport queue that spreads mass warps over several ticks.
+     */
+    public static final class TeleportQueue {
+        /**
+         * Queue /warp requests and drain them with the per-tick budgets below. Off: every teleport runs as soon as possible.
+         */
+        public boolean enabled = true;
+        /**
+         * Maximum teleports performed per tick.
+         */
+        public int maxTeleportsPerTick = 20;
+        /**
+         * Maximum destination chunk loads started per tick. Requests to the same chunk share one load.
+         */
+        public int maxChunkLoadsPerTick = 4;
+    }
+
+    /**
+     * Settings for the operation metrics shown by /warpstats.
+     */
+    public static final class Metrics {
+        /**
+         * Write every metric to config/simplybetter/metrics.json this often. 0 disables the file.
+         */
+        public int dumpIntervalSeconds = 0;
+    }
+
+    /**
+     * Settings for per-player private warps (/setwarp &lt;name&gt; private).
+     */
+    public static final class PrivateWarps {
+        /**
+         * Private warps a player may have at once.
+         */
+        public int maxPerPlayer = 16;
+    }
+
+    /**
+     * Settings for the delay between /warp and the teleport. Players with simplybetter.warps.bypass.warmup skip it.
+     */
+    public static final class Warmup {
+        /**
+         * Seconds a player has to wait before being teleported. 0 teleports right away.
+         */
+        public int seconds = 0;
+        /**
+         * Cancel the warmup when the player moves more than half a block or changes dimension.
+         */
+        public boolean cancelOnMove = true;
+        /**
+         * Cancel the warmup when the player takes damage.
+         */
+        public boolean cancelOnDamage = true;
+    }
+
+    /**
+     * Settings for the time between two teleports, kept across restarts in config/simplybetter/cooldowns.json.
+     * Players with simplybetter.warps.bypass.cooldown skip them.
+     */
+    public static final class Cooldown {
+        /**
+         * Seconds after any teleport before the player may warp again. 0 disables.
+         */
+        public int playerSeconds = 0;
+        /**
+         * Seconds after a teleport before the player may use that same warp again. 0 disables.
+         */
+        public int warpSeconds = 0;
+    }
+
+    public static WarpConfig get() {
+        return current;
+    }
+
+    /**
+     * Loads config/simplybetter/config.json, creating it with defaults if it does not exist.
+     */
+    public static void load() {
+        Path file = Path.of("config", "simplybetter", "config.json");
+        try {
+            Files.createDirectories(file.getParent());
+            WarpConfig loaded = null;
+            if (Files.exists(file)) {
+                try (Reader reader = Files.newBufferedReader(file)) {
+                    loaded = GSON.fromJson(reader, WarpConfig.class);
+                }
+            }
+            current = loaded != null ? loaded : new WarpConfig();
+            save();
+        } catch (Exception e) {
+            LOGGER.error("[Simply Better Warps] Failed to load config from {}, using defaults", file, e);
+            current = new WarpConfig();
+        }
+    }
+
+    /**
+     * Writes the current settings back to config/simplybetter/config.json.
+     */
+    public static void save() {
+        Path file = Path.of("config", "simplybetter", "config.json");
+        try (Writer writer = Files.newBufferedWriter(file)) {
+            GSON.toJson(current, writer);
+        } catch (Exception e) {
+            LOGGER.error("[Simply Better Warps] Failed to save config to {}", file, e);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package as.sirhephaistos;
+
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.registry.RegistryKeys;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.Identifier;
+import net.minecraft.world.World;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interned dimension a warp points at. Every warp in the same dimension shares one instance, which holds the
+ * id string, the parsed {@link RegistryKey} and, while a server is running, the resolved {@link ServerWorld}.
+ * Worlds are resolved when the server starts and refreshed on world load/unload, never per teleport.
+ */
+public final class WarpDimension {
+    private static final Logger LOGGER = LoggerFactory.getLogger("simplybetter-warps");
+    /**
+     * Map<dimensionId, WarpDimension>
+     */
+    private static final Map<String, WarpDimension> TABLE = new ConcurrentHashMap<>();
+    private static volatile MinecraftServer server;
+    /**
+     * Reports missing dimensions brought in after startup: reloads, imports and external edits of the warp file.
+     */
+    public static final WarpChangeListener MISSING_REPORTER = new WarpChangeListener() {
+        @Override
+        public void onWarpSet(String name, WarpPoint previous, WarpPoint point) {
+            WarpDimension dim = point.dimension();
+            // only the first warp in a missing dimension pays for the count, later ones see it reported
+            if (server != null && dim.world == null && !dim.reported) reportMissing(WarpManager.get().snapshot());
+        }
+
+        @Override
+        public void onWarpRemoved(String name, WarpPoint point) {
+        }
+
+        @Override
+        public void onReload(WarpSnapshot snapshot) {
+            // the first load runs before the worlds exist; SERVER_STARTED reports that one
+            if (server != null) reportMissing(snapshot);
+        }
+    };
+
+    private final String id;
+    private final RegistryKey<World> key;
+    private volatile ServerWorld world;
+    private volatile boolean reported;
+
+    private WarpDimension(String id, RegistryKey<World> key) {
+        this.id = id;
+        this.key = key;
+    }
+
+    /**
+     * Interns a dimension by its namespaced id, e.g. "minecraft:overworld".
+     */
+    public static WarpDimension of(String id) {
+        WarpDimension dim = TABLE.get(id);
+        if (dim != null) return dim;
+        return TABLE.computeIfAbsent(id, i -> {
+            Identifier parsed = Identifier.tryParse(i);
+            return resolved(new WarpDimension(i, parsed == null ? null : RegistryKey.of(RegistryKeys.WORLD, parsed)));
+        });
+    }
+
+    /**
+     * Interns a dimension by its registry key.
+     */
+    public static WarpDimension of(RegistryKey<World> key) {
+        String id = key.getValue().toString();
+        WarpDimension dim = TABLE.get(id);
+        if (dim != null) return dim;
+        return TABLE.computeIfAbsent(id, i -> resolved(new WarpDimension(i, key)));
+    }
+
+    private static WarpDimension resolved(WarpDimension dim) {
+        MinecraftServer s = server;
+        if (s != null && dim.key != null) dim.world = s.getWorld(dim.key);
+        return dim;
+    }
+
+    /**
+     * Every dimension interned so far.
+     */
+    public static Collection<WarpDimension> all() {
+        return TABLE.values();
+    }
+
+    /**
+     * Resolves every interned dimension against the server's worlds. Called once the worlds exist.
+     */
+    public static void attach(MinecraftServer s) {
+        server = s;
+        for (WarpDimension dim : TABLE.values()) {
+            dim.world = dim.key == null ? null : s.getWorld(dim.key);
+        }
+    }
+
+    /**
+     * Forgets the server's worlds when it stops.
+     */
+    public static void detach() {
+        server = null;
+        for (WarpDimension dim : TABLE.values()) {
+            dim.world = null;
+            dim.reported = false;
+        }
+    }
+
+    public static void onWorldLoad(ServerWorld world) {
+        of(world.getRegistryKey()).world = world;
+    }
+
+    public static void onWorldUnload(ServerWorld world) {
+        WarpDimension dim = TABLE.get(world.getRegistryKey().getValue().toString());
+        if (dim != null && dim.world == world) dim.world = null;
+    }
+
+    /**
+     * Logs, once per dimension, warps that point at a dimension this server does not have.
+     */
+    public static void reportMissing(WarpSnapshot snapshot) {
+        Map<WarpDimension, Integer> counts = new HashMap<>();
+        for (WarpPoint wp : snapshot.warps().values()) {
+            if (wp.dimension().world == null) counts.merge(wp.dimension(), 1, Integer::sum);
+        }
+        counts.forEach((dim, count) -> {
+            if (dim.reported) return;
+            dim.reported = true;
+            if (dim.key == null) {
+                LOGGER.warn("[Simply Better Warps] {} warps have an invalid dimension id '{}'", count, dim.id);
+            } else {
+                LOGGER.warn("[Simply Better Warps] {} warps point at dimension '{}', which is not loaded on this server", count, dim.id);
+            }
+        });
+    }
+
+    public String id() {
+        return id;
+    }
+
+    /**
+     * Registry key of this dimension, or null if the id is not a valid identifier.
+     */
+    public RegistryKey<World> key() {
+        return key;
+    }
+
+    /**
+     * World of this dimension on the running server, or null if it does not exist (or no server is running).
+     */
+    public ServerWorld world() {
+        return world;
+    }
+
+    @Override
+    public String toString() {
+        return id;
+    }
+}
@@ -0,0 +1,114 @@
+package as.sirhephaistos;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.annotations.SerializedName;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * On-disk formats of the warp snapshot. JSON is the default and meant to be hand-edited;
+ * binary is smaller and much faster to load for servers with very many warps.
+ */
+public enum WarpFileFormat {
+    @SerializedName("json")
+    JSON("warps.json") {
+        @Override
+        public Map<String, WarpPoint> read(Path file) throws IOException {
+            try (Reader reader = Files.newBufferedReader(file)) {
+                return read(reader);
+            }
+        }
+
+        @Override
+        public Map<String, WarpPoint> read(byte[] data, Path file) throws IOException {
+            try (Reader reader = new InputStreamReader(new ByteArrayInputStream(data), StandardCharsets.UTF_8)) {
+                return read(reader);
+            }
+        }
+
+        private static Map<String, WarpPoint> read(Reader reader) {
+            Map<String, WarpPoint> warps = new HashMap<>();
+            JsonObject root = JsonParser.parseReader(reader).getAsJsonObject();
+            for (String name : root.keySet()) {
+                JsonObject obj = root.getAsJsonObject(name);
+                warps.put(name.toLowerCase(Locale.ROOT), WarpPoint.fromJson(obj));
+            }
+            return warps;
+        }
+
+        @Override
+        public void write(Map<String, WarpPoint> warps, OutputStream out) throws IOException {
+            JsonObject root = new JsonObject();
+            for (var entry : warps.entrySet()) {
+                root.add(entry.getKey(), entry.getValue().toJson());
+            }
+            Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            GSON.toJson(root, writer);
+            writer.flush();
+        }
+    },
+    @SerializedName("binary")
+    BINARY("warps.bin") {
+        @Override
+        public Map<String, WarpPoint> read(Path file) throws IOException {
+            return WarpBinaryFormat.read(file);
+        }
+
+        @Override
+        public Map<String, WarpPoint> read(byte[] data, Path file) throws IOException {
+            return WarpBinaryFormat.read(ByteBuffer.wrap(data), file);
+        }
+
+        @Override
+        public void write(Map<String, WarpPoint> warps, OutputStream out) throws IOException {
+            WarpBinaryFormat.write(warps, out);
+        }
+    };
+
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    private final String fileName;
+
+    WarpFileFormat(String fileName) {
+        this.fileName = fileName;
+    }
+
+    /**
+     * Name of the snapshot file in this format, inside config/simplybetter.
+     */
+    public String fileName() {
+        return fileName;
+    }
+
+    /**
+     * Reads every warp from a snapshot file, keyed by normalized name.
+     */
+    public abstract Map<String, WarpPoint> read(Path file) throws IOException;
+
+    /**
+     * Reads every warp from the content of a snapshot file already in memory.
+     *
+     * @param file where the bytes came from, for error messages
+     */
+    public abstract Map<String, WarpPoint> read(byte[] data, Path file) throws IOException;
+
+    /**
+     * Writes every warp to the stream and flushes it. The stream is not closed.
+     */
+    public abstract void write(Map<String, WarpPoint> warps, OutputStream out) throws IOException;
+}
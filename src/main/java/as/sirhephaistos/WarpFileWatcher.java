@@ -0,0 +1,209 @@
+package as.sirhephaistos;
+
+import net.minecraft.server.MinecraftServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies external edits of the snapshot file (e.g. warps.json changed by ops tooling) while the server runs.
+ * A background thread watches config/simplybetter; once the file has been quiet for a moment it is parsed and diffed
+ * against the registry off-thread, and the diff is applied on the server thread as a single change.
+ * Writes made by the mod itself are recognized by checksum and ignored.
+ * When a warp was changed both in the file and in game since the last save, the file wins and the conflict is logged.
+ */
+public final class WarpFileWatcher {
+    private static final WarpFileWatcher INSTANCE = new WarpFileWatcher();
+    private static final Logger LOGGER = LoggerFactory.getLogger("simplybetter-warps");
+    /**
+     * Editors often write a file in several steps; it is only read once no event came for this long.
+     */
+    private static final long QUIET_MILLIS = 500;
+    /**
+     * Conflicts logged one by one per edit; the rest are only counted.
+     */
+    private static final int MAX_LOGGED_CONFLICTS = 20;
+    private volatile MinecraftServer server;
+    private volatile FileWarpStorage storage;
+    private WatchService watchService;
+    private Thread thread;
+
+    private WarpFileWatcher() {
+    }
+
+    public static WarpFileWatcher get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Starts watching the loaded file storage, if enabled. Does nothing with the SQLite backend.
+     */
+    public void start(MinecraftServer server) {
+        if (!WarpConfig.get().watchWarpFile || thread != null) return;
+        if (!(WarpManager.get().storage() instanceof FileWarpStorage fileStorage)) return;
+        Path directory = fileStorage.file().getParent();
+        WatchService ws;
+        try {
+            ws = directory.getFileSystem().newWatchService();
+            directory.register(ws, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException | UnsupportedOperationException e) {
+            LOGGER.warn("[Simply Better Warps] Cannot watch {} for external edits: {}", directory, e.toString());
+            return;
+        }
+        this.server = server;
+        this.storage = fileStorage;
+        this.watchService = ws;
+        thread = new Thread(() -> watch(ws, fileStorage), "simplybetter-warps-watcher");
+        thread.setDaemon(true);
+        thread.start();
+        LOGGER.info("[Simply Better Warps] Watching {} for external edits", fileStorage.file());
+    }
+
+    /**
+     * Stops watching, then applies an edit that was not picked up yet, so the final save does not overwrite it.
+     * Called on the server thread before the registry shuts down.
+     */
+    public void stop() {
+        if (thread == null) return;
+        try {
+            watchService.close();
+            thread.join(1000);
+        } catch (IOException e) {
+            LOGGER.warn("[Simply Better Warps] Failed to close the warp file watcher", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        FileWarpStorage s = storage;
+        try {
+            Plan plan = plan(s);
+            if (plan != null) apply(s, plan);
+        } catch (Exception e) {
+            LOGGER.warn("[Simply Better Warps] Ignoring unreadable edit of {}, it is overwritten by the final save: {}", s.file(), e.toString());
+        }
+        thread = null;
+        watchService = null;
+        storage = null;
+        server = null;
+    }
+
+    private void watch(WatchService ws, FileWarpStorage fileStorage) {
+        Path fileName = fileStorage.file().getFileName();
+        boolean pending = false;
+        try {
+            while (true) {
+                WatchKey key = pending ? ws.poll(QUIET_MILLIS, TimeUnit.MILLISECONDS) : ws.take();
+                if (key == null) {
+                    pending = false;
+                    check(fileStorage);
+                    continue;
+                }
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW || fileName.equals(event.context())) {
+                        pending = true;
+                    }
+                }
+                key.reset();
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // stopped
+        }
+    }
+
+    /**
+     * Reads and diffs the file on the watcher thread, then hands the diff to the server thread.
+     */
+    private void check(FileWarpStorage fileStorage) {
+        try {
+            Plan plan = plan(fileStorage);
+            MinecraftServer s = server;
+            if (plan == null || s == null) return;
+            s.execute(() -> apply(fileStorage, plan));
+        } catch (Exception e) {
+            LOGGER.warn("[Simply Better Warps] Ignoring unreadable edit of {}, waiting for the next one: {}", fileStorage.file(), e.toString());
+        }
+    }
+
+    private static Plan plan(FileWarpStorage fileStorage) throws IOException {
+        FileWarpStorage.ExternalEdit edit = fileStorage.readExternalEdit();
+        if (edit == null) return null;
+        return diff(edit, WarpManager.get().snapshot());
+    }
+
+    /**
+     * Three-way diff: only names whose file content differs from what the mod last wrote are touched.
+     * A touched name whose registry value also moved away from that content is a conflict.
+     */
+    private static Plan diff(FileWarpStorage.ExternalEdit edit, WarpSnapshot ours) {
+        Map<String, WarpPoint> sets = new HashMap<>();
+        Set<String> removals = new HashSet<>();
+        List<String> conflicts = new ArrayList<>();
+        Map<String, WarpPoint> base = edit.base();
+        for (var entry : edit.warps().entrySet()) {
+            String name = entry.getKey();
+            WarpPoint theirs = entry.getValue();
+            WarpPoint before = base.get(name);
+            if (theirs.equals(before)) continue;
+            WarpPoint mine = ours.get(name);
+            if (theirs.equals(mine)) continue;
+            if (!Objects.equals(mine, before)) conflicts.add(name);
+            sets.put(name, theirs);
+        }
+        for (var entry : base.entrySet()) {
+            String name = entry.getKey();
+            if (edit.warps().containsKey(name)) continue;
+            WarpPoint mine = ours.get(name);
+            if (mine == null) continue;
+            if (!mine.equals(entry.getValue())) conflicts.add(name);
+            removals.add(name);
+        }
+        return new Plan(edit, ours.version(), sets, removals, conflicts);
+    }
+
+    /**
+     * Applies a diff on the server thread. Recomputed first if the registry changed since it was made.
+     */
+    private static void apply(FileWarpStorage fileStorage, Plan plan) {
+        WarpManager manager = WarpManager.get();
+        if (manager.storage() != fileStorage) return;
+        if (manager.snapshot().version() != plan.version()) {
+            plan = diff(plan.edit(), manager.snapshot());
+        }
+        manager.applyChanges(plan.sets(), plan.removals());
+        fileStorage.acceptExternalEdit(plan.edit());
+
+        Path file = fileStorage.file().getFileName();
+        if (!plan.sets().isEmpty() || !plan.removals().isEmpty()) {
+            LOGGER.info("[Simply Better Warps] Applied external edit of {}: {} warps set, {} removed",
+                    file, plan.sets().size(), plan.removals().size());
+        }
+        for (int i = 0; i < Math.min(plan.conflicts().size(), MAX_LOGGED_CONFLICTS); i++) {
+            LOGGER.warn("[Simply Better Warps] Warp '{}' was changed in game and in {} since the last save; kept the file version",
+                    plan.conflicts().get(i), file);
+        }
+        if (plan.conflicts().size() > MAX_LOGGED_CONFLICTS) {
+            LOGGER.warn("[Simply Better Warps] ... and {} more conflicting warps", plan.conflicts().size() - MAX_LOGGED_CONFLICTS);
+        }
+    }
+
+    /**
+     * Changes an external edit makes to the registry, computed against registry version {@code version}.
+     */
+    private record Plan(FileWarpStorage.ExternalEdit edit, long version, Map<String, WarpPoint> sets,
+                        Set<String> removals, List<String> conflicts) {
+    }
+}
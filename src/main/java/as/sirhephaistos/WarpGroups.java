@@ -0,0 +1,76 @@
+package as.sirhephaistos;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Member count of every warp group, kept up to date from registry changes so group names can be completed and
+ * listed without walking every warp. A group exists as long as at least one warp is in it.
+ */
+public final class WarpGroups implements WarpChangeListener {
+    private static final WarpGroups INSTANCE = new WarpGroups();
+    /**
+     * Map<group, memberCount>
+     */
+    private final Map<String, Integer> counts = new ConcurrentHashMap<>();
+    /**
+     * Bumped whenever a group appears or disappears.
+     */
+    private final AtomicLong version = new AtomicLong();
+
+    private WarpGroups() {
+    }
+
+    public static WarpGroups get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Every group with its member count, sorted by name.
+     */
+    public Map<String, Integer> groups() {
+        return new TreeMap<>(counts);
+    }
+
+    public boolean exists(String group) {
+        return counts.containsKey(group);
+    }
+
+    /**
+     * Changes whenever the set of groups changes, not on membership changes within existing groups.
+     */
+    public long version() {
+        return version.get();
+    }
+
+    @Override
+    public void onWarpSet(String name, WarpPoint previous, WarpPoint point) {
+        if (previous != null) leave(previous.group());
+        join(point.group());
+    }
+
+    @Override
+    public void onWarpRemoved(String name, WarpPoint point) {
+        leave(point.group());
+    }
+
+    @Override
+    public void onReload(WarpSnapshot snapshot) {
+        counts.clear();
+        for (WarpPoint point : snapshot.warps().values()) {
+            join(point.group());
+        }
+        version.incrementAndGet();
+    }
+
+    private void join(String group) {
+        if (group != null && counts.merge(group, 1, Integer::sum) == 1) version.incrementAndGet();
+    }
+
+    private void leave(String group) {
+        // a count reaching zero removes the group
+        if (group != null && counts.computeIfPresent(group, (g, n) -> n > 1 ? n - 1 : null) == null) version.incrementAndGet();
+    }
+}
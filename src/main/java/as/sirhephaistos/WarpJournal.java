@@ -0,0 +1,220 @@
+package as.sirhephaistos;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+/**
+ * Append-only log of warp mutations, stored next to warps.json.
+ * Every record is one JSON line; replaying the log over the last snapshot restores all edits made since.
+ * Records only ever assign or remove a name, so replaying a record the snapshot already contains is harmless.
+ */
+public final class WarpJournal {
+    private static final Logger LOGGER = LoggerFactory.getLogger("simplybetter-warps");
+    private final Gson gson = new Gson();
+    private final Path file;
+    private final Path rotatedFile;
+    private FileChannel channel;
+    private long rotations;
+
+    public WarpJournal(Path file) {
+        this.file = file;
+        this.rotatedFile = file.resolveSibling(file.getFileName() + ".old");
+    }
+
+    /**
+     * Opens the journal for appending, creating it if needed.
+     */
+    synchronized void open() throws IOException {
+        if (channel != null) return;
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Records that a warp was created or overwritten.
+     */
+    void appendSet(String name, WarpPoint point) {
+        JsonObject rec = new JsonObject();
+        rec.addProperty("op", "set");
+        rec.addProperty("name", name);
+        rec.add("warp", point.toJson());
+        append(rec);
+    }
+
+    /**
+     * Records many sets with a single fsync at the end.
+     */
+    void appendSets(Map<String, WarpPoint> points) {
+        StringBuilder sb = new StringBuilder();
+        for (var entry : points.entrySet()) {
+            JsonObject rec = new JsonObject();
+            rec.addProperty("op", "set");
+            rec.addProperty("name", entry.getKey());
+            rec.add("warp", entry.getValue().toJson());
+            sb.append(gson.toJson(rec)).append('\n');
+        }
+        appendRaw(sb.toString());
+    }
+
+    /**
+     * Records that a warp was deleted.
+     */
+    void appendDelete(String name) {
+        JsonObject rec = new JsonObject();
+        rec.addProperty("op", "del");
+        rec.addProperty("name", name);
+        append(rec);
+    }
+
+    /**
+     * Records a rename. The point is stored too so the record stays valid when replayed on its own.
+     */
+    void appendRename(String oldName, String newName, WarpPoint point) {
+        JsonObject rec = new JsonObject();
+        rec.addProperty("op", "rename");
+        rec.addProperty("from", oldName);
+        rec.addProperty("to", newName);
+        rec.add("warp", point.toJson());
+        append(rec);
+    }
+
+    private void append(JsonObject rec) {
+        appendRaw(gson.toJson(rec) + "\n");
+    }
+
+    private synchronized void appendRaw(String lines) {
+        if (channel == null) {
+            LOGGER.error("[Simply Better Warps] Journal {} is not open, edit will only be kept until the next save", file);
+            return;
+        }
+        try {
+            ByteBuffer buf = ByteBuffer.wrap(lines.getBytes(StandardCharsets.UTF_8));
+            while (buf.hasRemaining()) {
+                channel.write(buf);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            WarpMetrics.get().increment(WarpMetrics.Counter.STORAGE_ERRORS);
+            LOGGER.error("[Simply Better Warps] Failed to append to journal {}", file, e);
+        }
+    }
+
+    /**
+     * Current size of the active journal in bytes.
+     */
+    synchronized long size() {
+        try {
+            return channel == null ? 0 : channel.size();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Moves the active journal aside and starts a fresh one.
+     * The rotated file is kept until the snapshot covering it has been written.
+     *
+     * @return generation of this rotation, to be handed back to {@link #discardRotated(long)}
+     */
+    synchronized long rotate() throws IOException {
+        close();
+        if (Files.exists(rotatedFile)) {
+            // a previous compaction never finished: keep its records in front of the new ones
+            try (FileChannel out = FileChannel.open(rotatedFile, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                 FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+                in.transferTo(0, in.size(), out);
+            }
+            Files.delete(file);
+        } else if (Files.exists(file)) {
+            Files.move(file, rotatedFile, StandardCopyOption.ATOMIC_MOVE);
+        }
+        open();
+        return ++rotations;
+    }
+
+    /**
+     * Drops the rotated journal once a snapshot containing its records is on disk.
+     * Ignored if the journal was rotated again since, as the rotated file then also holds newer records.
+     */
+    synchronized void discardRotated(long generation) throws IOException {
+        if (generation == rotations) {
+            Files.deleteIfExists(rotatedFile);
+        }
+    }
+
+    /**
+     * Empties both the rotated and the active journal, after a full snapshot has been written.
+     */
+    synchronized void reset() throws IOException {
+        Files.deleteIfExists(rotatedFile);
+        if (channel != null) {
+            channel.truncate(0);
+            channel.force(true);
+        } else {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Replays the rotated journal and then the active one into the given map.
+     *
+     * @return number of records applied
+     */
+    synchronized int replay(Map<String, WarpPoint> target) throws IOException {
+        return replayFile(rotatedFile, target) + replayFile(file, target);
+    }
+
+    private int replayFile(Path path, Map<String, WarpPoint> target) throws IOException {
+        if (!Files.exists(path)) return 0;
+        int applied = 0;
+        int lineNo = 0;
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (line.isBlank()) continue;
+                try {
+                    JsonObject rec = JsonParser.parseString(line).getAsJsonObject();
+                    switch (rec.get("op").getAsString()) {
+                        case "set" -> target.put(rec.get("name").getAsString(), WarpPoint.fromJson(rec.getAsJsonObject("warp")));
+                        case "del" -> target.remove(rec.get("name").getAsString());
+                        case "rename" -> {
+                            target.remove(rec.get("from").getAsString());
+                            target.put(rec.get("to").getAsString(), WarpPoint.fromJson(rec.getAsJsonObject("warp")));
+                        }
+                        default -> {
+                            LOGGER.warn("[Simply Better Warps] Unknown journal record at {}:{}, skipping", path, lineNo);
+                            continue;
+                        }
+                    }
+                    applied++;
+                } catch (JsonParseException | IllegalStateException | NullPointerException e) {
+                    // a torn last line is expected after a crash mid-append
+                    LOGGER.warn("[Simply Better Warps] Ignoring unreadable journal record at {}:{}", path, lineNo);
+                }
+            }
+        }
+        return applied;
+    }
+
+    synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+}
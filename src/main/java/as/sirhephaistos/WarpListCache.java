@@ -0,0 +1,221 @@
+package as.sirhephaistos;
+
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.text.Text;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Cached /warps listings. A listing belongs to a permission profile (see {@link WarpPermissionCache#profile}) and a
+ * dimension or group filter rather than to a player, so players with the same effective permissions share its names
+ * and rendered pages, and finding it is a lookup by token whatever the catalog size.
+ * Warp changes are not applied to every listing as they happen: they are logged, and a listing replays the names
+ * changed since its version the next time it is used. Only a listing further behind than the log is rebuilt.
+ */
+public final class WarpListCache implements WarpChangeListener {
+    private static final WarpListCache INSTANCE = new WarpListCache();
+    /**
+     * Warps per /warps page.
+     */
+    public static final int PAGE_SIZE = 20;
+    /**
+     * Listings kept at most; past this, they are dropped and rebuilt on demand.
+     */
+    private static final int MAX_LISTINGS = 256;
+    /**
+     * Changed names remembered for catching listings up; a bulk change longer than this rebuilds them instead.
+     */
+    private static final int MAX_CHANGES = 4096;
+    private final Map<Key, Listing> listings = new ConcurrentHashMap<>();
+    /**
+     * Changes in version order, guarded by itself.
+     */
+    private final ArrayDeque<Change> changes = new ArrayDeque<>();
+    /**
+     * The log holds every change after this registry version, guarded by {@link #changes}.
+     */
+    private long logFloor = Long.MAX_VALUE;
+
+    private WarpListCache() {
+    }
+
+    public static WarpListCache get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Listing of the warps the source may see, optionally restricted to one dimension or group.
+     * Shared by every player with the same permission profile; built fresh (and not kept) for non-player sources.
+     *
+     * @param dimension only warps in this dimension, or null for all
+     * @param group     only warps in this group, or null for all
+     */
+    public Listing listing(ServerCommandSource src, WarpDimension dimension, String group) {
+        WarpSnapshot snapshot = WarpManager.get().snapshot();
+        WarpPermissionCache permissions = WarpPermissionCache.get();
+        Predicate<String> canSee = name -> permissions.canSee(src, name);
+        Object profile = permissions.profile(src);
+        if (profile == null) {
+            return new Listing(snapshot.version(), dimension, group, visibleNames(snapshot, dimension, group, canSee));
+        }
+        Key key = new Key(profile, dimension, group);
+        Listing listing = listings.get(key);
+        if (listing == null || !catchUp(listing, snapshot, canSee)) {
+            listing = new Listing(snapshot.version(), dimension, group, visibleNames(snapshot, dimension, group, canSee));
+            if (listings.size() >= MAX_LISTINGS) listings.clear();
+            listings.put(key, listing);
+        }
+        return listing;
+    }
+
+    /**
+     * Replays the names changed since the listing's version. Returns false if the log no longer reaches back that far.
+     */
+    private boolean catchUp(Listing listing, WarpSnapshot snapshot, Predicate<String> canSee) {
+        synchronized (listing) {
+            if (listing.version == snapshot.version()) return true;
+            Set<String> changed = new LinkedHashSet<>();
+            synchronized (changes) {
+                if (listing.version < logFloor) return false;
+                for (Iterator<Change> it = changes.descendingIterator(); it.hasNext(); ) {
+                    Change change = it.next();
+                    if (change.version() <= listing.version) break;
+                    changed.add(change.name());
+                }
+            }
+            for (String name : changed) {
+                listing.update(name, snapshot.get(name), canSee);
+            }
+            listing.version = snapshot.version();
+            return true;
+        }
+    }
+
+    @Override
+    public void onWarpSet(String name, WarpPoint previous, WarpPoint point) {
+        log(name);
+    }
+
+    @Override
+    public void onWarpRemoved(String name, WarpPoint point) {
+        log(name);
+    }
+
+    @Override
+    public void onReload(WarpSnapshot snapshot) {
+        synchronized (changes) {
+            changes.clear();
+            logFloor = snapshot.version();
+        }
+        listings.clear();
+    }
+
+    private void log(String name) {
+        // listeners run after the change was published, so this is the version that holds it
+        long version = WarpManager.get().snapshot().version();
+        synchronized (changes) {
+            changes.addLast(new Change(version, name));
+            if (changes.size() > MAX_CHANGES) logFloor = changes.removeFirst().version();
+        }
+    }
+
+    /**
+     * Names of the snapshot passing {@code canSee}, in sorted order, optionally restricted to one dimension or group.
+     */
+    static List<String> visibleNames(WarpSnapshot snapshot, WarpDimension dimension, String group, Predicate<String> canSee) {
+        List<String> names = new ArrayList<>();
+        // the name index is already sorted
+        for (String name : snapshot.names().sorted()) {
+            if (matches(snapshot.get(name), dimension, group) && canSee.test(name)) names.add(name);
+        }
+        return names;
+    }
+
+    private static boolean matches(WarpPoint point, WarpDimension dimension, String group) {
+        return (dimension == null || point.dimension() == dimension) && (group == null || group.equals(point.group()));
+    }
+
+    /**
+     * Profiles are compared by identity, so looking a listing up never walks its names.
+     */
+    private record Key(Object profile, WarpDimension dimension, String group) {
+    }
+
+    private record Change(long version, String name) {
+    }
+
+    /**
+     * Visible names for one permission profile and filter, with their pages rendered lazily.
+     */
+    public static final class Listing {
+        private final WarpDimension dimension;
+        private final String group;
+        private final List<String> names;
+        /**
+         * Map<page, rendered page>, 1-based.
+         */
+        private final Map<Integer, Text> pages = new HashMap<>();
+        /**
+         * Registry version the names are up to date with, guarded by the listing.
+         */
+        private long version;
+
+        private Listing(long version, WarpDimension dimension, String group, List<String> names) {
+            this.version = version;
+            this.dimension = dimension;
+            this.group = group;
+            this.names = names;
+        }
+
+        public synchronized List<String> names() {
+            return Collections.unmodifiableList(names);
+        }
+
+        public synchronized int pageCount() {
+            return (names.size() + PAGE_SIZE - 1) / PAGE_SIZE;
+        }
+
+        /**
+         * Rendered page, 1-based. Only that page's names are handed to {@code render}, and only the first time.
+         */
+        public synchronized Text page(int page, Function<List<String>, Text> render) {
+            return pages.computeIfAbsent(page, p -> {
+                int from = (p - 1) * PAGE_SIZE;
+                return render.apply(List.copyOf(names.subList(from, Math.min(names.size(), from + PAGE_SIZE))));
+            });
+        }
+
+        /**
+         * Brings one name in line with its current point (null once deleted) and drops the pages it changes.
+         */
+        private synchronized void update(String name, WarpPoint point, Predicate<String> canSee) {
+            int idx = Collections.binarySearch(names, name);
+            boolean visible = point != null && matches(point, dimension, group) && canSee.test(name);
+            if (idx >= 0 && visible) {
+                // still listed, but whether it can be teleported to may have changed with its group
+                pages.remove(idx / PAGE_SIZE + 1);
+                return;
+            }
+            if (idx >= 0) {
+                names.remove(idx);
+            } else if (visible) {
+                names.add(-idx - 1, name);
+            } else {
+                return;
+            }
+            // every page header shows the total
+            pages.clear();
+        }
+    }
+}
@@ -1,36 +1,62 @@
 package as.sirhephaistos;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.Reader;
-import java.io.Writer;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Locale;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Central registry for warps, grouped per dimension.
- * Persists to and loads from <server>/config/betterwarps.json.
+ * Persists through a {@link WarpStorage} chosen in the config: by default config/simplybetter/warps.json
+ * (or warps.bin) plus warps.journal, or an embedded SQLite database.
+ * Warps are published as immutable {@link WarpSnapshot}s: readers never lock or copy, writers build and publish a new version.
  */
 public final class WarpManager {
-    private static final WarpManager INSTANCE = new WarpManager();
+    private static final WarpManager INSTANCE = new WarpManager(Path.of("config", "simplybetter"));
     private static final Logger LOGGER = LoggerFactory.getLogger("simplybetter-warps");
+    private final AtomicReference<WarpSnapshot> current = new AtomicReference<>(WarpSnapshot.EMPTY);
     /**
-     * Map<warpNameLower, WarpPoint>
+     * Serializes writers, so versions and storage writes happen in the same order.
      */
-    private final Map<String, WarpPoint> warps = new HashMap<>();
-    private final Gson gson = new GsonBuilder().setPrettyPrinting().create();
-    private final String fileName = "warps.json";
-    private Path file;
+    private final Object writeLock = new Object();
+    private final List<WarpChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private final Path directory;
+    /**
+     * Format forced by the creator, or null to follow the config.
+     */
+    private final WarpFileFormat fixedFormat;
+    /**
+     * Backend forced by the creator, or null to follow the config.
+     */
+    private final WarpStorage.Backend fixedBackend;
+    private WarpStorage storage;
 
-    private WarpManager() {
+    /**
+     * Creates a registry persisting to the given directory, with the storage chosen by the config.
+     * The server uses {@link #get()}; separate instances exist for benchmarks and tooling.
+     */
+    WarpManager(Path directory) {
+        this(directory, null, null);
+    }
+
+    /**
+     * Creates a registry persisting to the given directory, always with the given backend and file format.
+     */
+    WarpManager(Path directory, WarpStorage.Backend backend, WarpFileFormat format) {
+        this.directory = directory;
+        this.fixedBackend = backend;
+        this.fixedFormat = format;
     }
 
     public static WarpManager get() {
@@ -45,66 +71,207 @@ public final class WarpManager {
     }
 
     /**
-     * Loads warps from config/simplybetter/warps.json.
-     * If the file does not exist, it is created empty.
+     * Opens the configured storage and loads every warp from it, replacing the current registry.
      */
     public void load() {
+        long start = System.nanoTime();
         try {
-            file = Path.of("config", "simplybetter", fileName);
-            Files.createDirectories(file.getParent());
-
-            // Create empty file if it does not exist
-            if (!Files.exists(file)) {
-                try (Writer writer = Files.newBufferedWriter(file)) {
-                    writer.write("{}");
-                }
-                return;
-            }
-
-            try (Reader reader = Files.newBufferedReader(file)) {
-                JsonObject root = JsonParser.parseReader(reader).getAsJsonObject();
-                warps.clear();
-                for (String name : root.keySet()) {
-                    JsonObject obj = root.getAsJsonObject(name);
-                    warps.put(name.toLowerCase(Locale.ROOT), WarpPoint.fromJson(obj));
+            synchronized (writeLock) {
+                if (storage != null) {
+                    storage.close();
+                    storage = null;
                 }
+                // only kept once it loaded, so a broken file is never overwritten by an empty registry
+                WarpStorage opened = createStorage();
+                Map<String, WarpPoint> warps = opened.load();
+                storage = opened;
+                WarpSnapshot loaded = publish(warps, WarpNameIndex.of(warps.keySet()));
+                listeners.forEach(l -> l.onReload(loaded));
             }
+            WarpMetrics.get().timer(WarpMetrics.Timer.LOAD).recordSince(start);
 
             LOGGER.info("[Simply Better Warps] Simply Better Warps has been initialized");
         } catch (Exception e) {
-            LOGGER.error("[Simply Better Warps] Failed to load warps from {}", file.toString(), e);
+            LOGGER.error("[Simply Better Warps] Failed to load warps from {}", directory.toString(), e);
         }
     }
 
     /**
-     * Saves current warps to config/simplybetter/warps.json (pretty JSON).
-     * Creates directories and file if needed.
+     * Makes the current warps durable in the storage. Runs synchronously on the calling thread;
+     * from the server thread, prefer {@link #autosave()}.
      */
     public void save() {
         try {
-            file = Path.of("config", "simplybetter", fileName);
-            Files.createDirectories(file.getParent());
+            synchronized (writeLock) {
+                if (storage == null) {
+                    LOGGER.warn("[Simply Better Warps] Warps were never loaded, nothing to save");
+                    return;
+                }
+                storage.save(current.get().warps());
+            }
+            LOGGER.info("[Simply Better Warps] Simply Better Warps has been saved");
+        } catch (Exception e) {
+            LOGGER.error("[Simply Better Warps] Failed to save warps to {}", directory.toString(), e);
+        }
+    }
 
-            JsonObject root = new JsonObject();
-            for (var entry : warps.entrySet()) {
-                root.add(entry.getKey(), entry.getValue().toJson());
+    /**
+     * Saves a final snapshot and releases the storage. Called when the server stops.
+     */
+    public void shutdown() {
+        save();
+        synchronized (writeLock) {
+            try {
+                if (storage != null) {
+                    storage.close();
+                }
+            } catch (IOException e) {
+                LOGGER.error("[Simply Better Warps] Failed to close warp storage", e);
             }
+            storage = null;
+        }
+    }
 
-            try (Writer writer = Files.newBufferedWriter(file)) {
-                gson.toJson(root, writer);
+    /**
+     * Periodic checkpoint of the storage, cheap when nothing changed. Called from the server thread.
+     */
+    public void autosave() {
+        synchronized (writeLock) {
+            if (storage != null) {
+                storage.autosave();
             }
-            LOGGER.info("[Simply Better Warps] Simply Better Warps has been saved");
-        } catch (Exception e) {
-            LOGGER.error("[Simply Better Warps] Failed to save warps to {}", file.toString(), e);
         }
     }
 
+    /**
+     * Writes the current warps as pretty JSON to warps.export.json next to the warp file, for hand editing
+     * or backups. The export is not loaded back automatically. Safe to call from any thread.
+     *
+     * @return the written file
+     */
+    public Path exportJson() throws IOException {
+        Path export = directory.resolve("warps.export.json");
+        Files.createDirectories(directory);
+        try (OutputStream out = Files.newOutputStream(export)) {
+            WarpFileFormat.JSON.write(current.get().warps(), out);
+        }
+        return export;
+    }
+
+    /**
+     * Storage of the loaded registry, for monitoring. Null before {@link #load()}.
+     */
+    public WarpStorage storage() {
+        return storage;
+    }
+
+    private WarpStorage createStorage() {
+        WarpStorage.Backend backend = fixedBackend != null ? fixedBackend : WarpConfig.get().storageBackend;
+        WarpFileFormat format = fixedFormat != null ? fixedFormat : WarpConfig.get().storageFormat;
+        if (format == null) format = WarpFileFormat.JSON;
+        if (backend == WarpStorage.Backend.SQLITE) {
+            return new SqliteWarpStorage(directory, format);
+        }
+        return new FileWarpStorage(directory, format, () -> current.get().warps());
+    }
+
+    /**
+     * Publishes a new snapshot built from the given map, which must not be touched afterwards. Caller holds the write lock.
+     */
+    private WarpSnapshot publish(Map<String, WarpPoint> warps, WarpNameIndex names) {
+        WarpSnapshot next = new WarpSnapshot(current.get().version() + 1, Collections.unmodifiableMap(warps), names);
+        current.set(next);
+        return next;
+    }
+
+    /**
+     * Registers a listener notified after every change to the registry.
+     */
+    public void addListener(WarpChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Current snapshot of all warps. Never copies; the returned snapshot never changes.
+     */
+    public WarpSnapshot snapshot() {
+        return current.get();
+    }
+
     /**
      * Sets or updates a warp point.
      */
     public void setWarp(String name, WarpPoint point) {
         String normName = normalizeName(name);
-        warps.put(normName, point);
+        synchronized (writeLock) {
+            WarpSnapshot cur = current.get();
+            Map<String, WarpPoint> next = new HashMap<>(cur.warps());
+            WarpPoint previous = next.put(normName, point);
+            publish(next, cur.names().with(normName));
+            listeners.forEach(l -> l.onWarpSet(normName, previous, point));
+            if (storage != null) {
+                storage.set(normName, point);
+            }
+        }
+    }
+
+    /**
+     * Sets or updates many warps at once, publishing a single new snapshot instead of one per warp.
+     */
+    public void setWarps(Map<String, WarpPoint> points) {
+        if (points.isEmpty()) return;
+        synchronized (writeLock) {
+            WarpSnapshot cur = current.get();
+            Map<String, WarpPoint> next = new HashMap<>(cur.warps());
+            Map<String, WarpPoint> written = new HashMap<>();
+            Map<String, WarpPoint> previous = new HashMap<>();
+            for (var entry : points.entrySet()) {
+                String normName = normalizeName(entry.getKey());
+                WarpPoint old = next.put(normName, entry.getValue());
+                written.put(normName, entry.getValue());
+                if (old != null) previous.put(normName, old);
+            }
+            // only names that did not exist yet change the name index
+            boolean newNames = previous.size() < written.size();
+            publish(next, newNames ? WarpNameIndex.of(next.keySet()) : cur.names());
+            for (var entry : written.entrySet()) {
+                WarpPoint old = previous.get(entry.getKey());
+                listeners.forEach(l -> l.onWarpSet(entry.getKey(), old, entry.getValue()));
+            }
+            if (storage != null) {
+                storage.setAll(written);
+            }
+        }
+    }
+
+    /**
+     * Sets and deletes many warps as one change, publishing a single new snapshot.
+     * Names must already be normalized; removed names that do not exist are skipped.
+     */
+    public void applyChanges(Map<String, WarpPoint> sets, Set<String> removals) {
+        if (sets.isEmpty() && removals.isEmpty()) return;
+        synchronized (writeLock) {
+            WarpSnapshot cur = current.get();
+            Map<String, WarpPoint> next = new HashMap<>(cur.warps());
+            Map<String, WarpPoint> previous = new HashMap<>();
+            Map<String, WarpPoint> removed = new HashMap<>();
+            for (String name : removals) {
+                WarpPoint old = next.remove(name);
+                if (old != null) removed.put(name, old);
+            }
+            for (var entry : sets.entrySet()) {
+                WarpPoint old = next.put(entry.getKey(), entry.getValue());
+                if (old != null) previous.put(entry.getKey(), old);
+            }
+            boolean namesChanged = !removed.isEmpty() || previous.size() < sets.size();
+            publish(next, namesChanged ? WarpNameIndex.of(next.keySet()) : cur.names());
+            removed.forEach((name, point) -> listeners.forEach(l -> l.onWarpRemoved(name, point)));
+            sets.forEach((name, point) -> listeners.forEach(l -> l.onWarpSet(name, previous.get(name), point)));
+            if (storage != null) {
+                removed.keySet().forEach(storage::delete);
+                if (!sets.isEmpty()) storage.setAll(sets);
+            }
+        }
     }
 
     /**
@@ -112,40 +279,73 @@ public final class WarpManager {
      */
     public boolean delWarp(String name) {
         String normName = normalizeName(name);
-        return warps.remove(normName) != null;
+        synchronized (writeLock) {
+            WarpSnapshot cur = current.get();
+            if (!cur.warps().containsKey(normName)) return false;
+            Map<String, WarpPoint> next = new HashMap<>(cur.warps());
+            WarpPoint removed = next.remove(normName);
+            publish(next, cur.names().without(normName));
+            listeners.forEach(l -> l.onWarpRemoved(normName, removed));
+            if (storage != null) {
+                storage.delete(normName);
+            }
+            return true;
+        }
     }
 
     /**
-     * Lists all warps.
+     * Lists all warps. The returned map is the current immutable snapshot, not a copy.
      */
     public Map<String, WarpPoint> listWarps() {
-        return Map.copyOf(warps);
+        return current.get().warps();
+    }
+
+    /**
+     * Sorted index over all warp names, for prefix lookups and ordered listings.
+     */
+    public WarpNameIndex names() {
+        return current.get().names();
     }
 
     /**
-     * Gets a warp point by name. Returns null if not found.
+     * Gets a warp point by name.
      *
      * @param warpName Name of the warp to retrieve.
-     * @return WarpPoint or null if not found.
+     * @return WarpPoint
+     * @throws IllegalArgumentException if no warp has that name
      */
     public WarpPoint getWarp(String warpName) {
         String normName = normalizeName(warpName);
-        if (!warps.containsKey(normName)) {
+        WarpPoint point = current.get().get(normName);
+        if (point == null) {
             throw new IllegalArgumentException("Warp " + normName + " not found");
         }
-        return warps.get(normName);
+        return point;
     }
 
     public void renameWarp(String oldName, String newName) {
         String normOldName = normalizeName(oldName);
         String normNewName = normalizeName(newName);
-        if (!warps.containsKey(normOldName)) {
-            throw new IllegalArgumentException("Warp " + normOldName + " not found");
-        }
-        if (warps.containsKey(normNewName)) {
-            throw new IllegalArgumentException("Warp " + normNewName + " already exists");
+        synchronized (writeLock) {
+            WarpSnapshot cur = current.get();
+            Map<String, WarpPoint> warps = cur.warps();
+            if (!warps.containsKey(normOldName)) {
+                throw new IllegalArgumentException("Warp " + normOldName + " not found");
+            }
+            if (warps.containsKey(normNewName)) {
+                throw new IllegalArgumentException("Warp " + normNewName + " already exists");
+            }
+            Map<String, WarpPoint> next = new HashMap<>(warps);
+            WarpPoint point = next.remove(normOldName);
+            next.put(normNewName, point);
+            publish(next, cur.names().without(normOldName).with(normNewName));
+            listeners.forEach(l -> {
+                l.onWarpRemoved(normOldName, point);
+                l.onWarpSet(normNewName, null, point);
+            });
+            if (storage != null) {
+                storage.rename(normOldName, normNewName, point);
+            }
         }
-        WarpPoint point = warps.remove(normOldName);
-        warps.put(normNewName, point);
     }
 }
@@ -0,0 +1,304 @@
+package as.sirhephaistos;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.ObjectName;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Operation metrics for the mod: latency histograms around teleports, completion, listings and persistence,
+ * plain counters, and teleports per warp. Recording never locks or allocates on the hot path.
+ * Shown by /warpstats, exposed over JMX, and optionally dumped to config/simplybetter/metrics.json.
+ */
+public final class WarpMetrics implements WarpMetricsMXBean, WarpChangeListener {
+    private static final WarpMetrics INSTANCE = new WarpMetrics();
+    private static final Logger LOGGER = LoggerFactory.getLogger("simplybetter-warps");
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    private static final String OBJECT_NAME = "as.sirhephaistos.simplybetterwarps:type=WarpMetrics";
+    private static final int TOP_WARPS = 20;
+    private final Map<Timer, LatencyHistogram> timers = new EnumMap<>(Timer.class);
+    private final Map<Counter, LongAdder> counters = new EnumMap<>(Counter.class);
+    private final Map<String, LongAdder> warpUses = new ConcurrentHashMap<>();
+    private final AtomicLong storageBytes = new AtomicLong();
+    private final AtomicLong maxTickTeleports = new AtomicLong();
+    private volatile int lastTickTeleports;
+    private int ticksUntilDump;
+
+    /**
+     * Timed operations.
+     */
+    public enum Timer {
+        /**
+         * From the /warp command to the player arriving, including chunk loading and queueing.
+         */
+        TELEPORT,
+        /**
+         * Destination chunk loads teleports had to wait for.
+         */
+        CHUNK_WAIT,
+        /**
+         * From a queued request to its turn, including the wait for its destination chunk.
+         */
+        QUEUE_WAIT,
+        SUGGEST,
+        LIST,
+        SEARCH,
+        LOAD,
+        /**
+         * Snapshot writes (file storage) or checkpoints (SQLite).
+         */
+        SAVE
+    }
+
+    public enum Counter {
+        TELEPORTS,
+        QUEUED_TELEPORTS,
+        TELEPORT_TIMEOUTS,
+        TELEPORT_CANCELLATIONS,
+        WARMUP_CANCELLATIONS,
+        COOLDOWN_REJECTIONS,
+        WARPS_SET,
+        WARPS_REMOVED,
+        STORAGE_ERRORS
+    }
+
+    private WarpMetrics() {
+        for (Timer timer : Timer.values()) timers.put(timer, new LatencyHistogram());
+        for (Counter counter : Counter.values()) counters.put(counter, new LongAdder());
+    }
+
+    public static WarpMetrics get() {
+        return INSTANCE;
+    }
+
+    public LatencyHistogram timer(Timer timer) {
+        return timers.get(timer);
+    }
+
+    public void increment(Counter counter) {
+        counters.get(counter).increment();
+    }
+
+    public long count(Counter counter) {
+        return counters.get(counter).sum();
+    }
+
+    /**
+     * Counts one completed teleport to the given warp.
+     */
+    public void recordWarpUse(String warpName) {
+        warpUses.computeIfAbsent(warpName, n -> new LongAdder()).increment();
+        counters.get(Counter.TELEPORTS).increment();
+    }
+
+    /**
+     * Size in bytes of the warp file or database after the last save.
+     */
+    public void recordStorageBytes(long bytes) {
+        storageBytes.set(bytes);
+    }
+
+    /**
+     * Teleports performed during the tick that just ended.
+     */
+    public void recordTickTeleports(int teleports) {
+        lastTickTeleports = teleports;
+        if (teleports > maxTickTeleports.get()) maxTickTeleports.accumulateAndGet(teleports, Math::max);
+    }
+
+    public int lastTickTeleports() {
+        return lastTickTeleports;
+    }
+
+    public long maxTickTeleports() {
+        return maxTickTeleports.get();
+    }
+
+    /**
+     * Teleports per warp since start, most used first.
+     */
+    public Map<String, Long> topWarps(int limit) {
+        Map<String, Long> top = new LinkedHashMap<>();
+        warpUses.entrySet().stream()
+                .map(e -> Map.entry(e.getKey(), e.getValue().sum()))
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(limit)
+                .forEach(e -> top.put(e.getKey(), e.getValue()));
+        return top;
+    }
+
+    /**
+     * Registers the JMX bean. Failures are logged and otherwise ignored.
+     */
+    public void registerMBean() {
+        try {
+            var server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) server.registerMBean(this, name);
+        } catch (Exception e) {
+            LOGGER.warn("[Simply Better Warps] Could not register metrics MBean", e);
+        }
+    }
+
+    public void unregisterMBean() {
+        try {
+            var server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) server.unregisterMBean(name);
+        } catch (Exception e) {
+            LOGGER.warn("[Simply Better Warps] Could not unregister metrics MBean", e);
+        }
+    }
+
+    /**
+     * Called every server tick; writes the metrics file every {@code metrics.dumpIntervalSeconds} if enabled.
+     */
+    public void tick() {
+        int interval = WarpConfig.get().metrics.dumpIntervalSeconds;
+        if (interval <= 0 || --ticksUntilDump > 0) return;
+        ticksUntilDump = interval * 20;
+        JsonObject json = toJson();
+        CompletableFuture.runAsync(() -> dump(json));
+    }
+
+    private void dump(JsonObject json) {
+        Path file = Path.of("config", "simplybetter", "metrics.json");
+        try (Writer writer = Files.newBufferedWriter(file)) {
+            GSON.toJson(json, writer);
+        } catch (Exception e) {
+            LOGGER.warn("[Simply Better Warps] Failed to write metrics to {}", file, e);
+        }
+    }
+
+    /**
+     * Every metric as one JSON object, for the dump file.
+     */
+    public JsonObject toJson() {
+        JsonObject root = new JsonObject();
+        root.addProperty("timestamp", System.currentTimeMillis());
+        root.addProperty("warps", getWarpCount());
+        root.addProperty("pendingTeleports", getPendingTeleports());
+        root.addProperty("storageBytes", storageBytes.get());
+        root.addProperty("snapshotQueueDepth", getSnapshotQueueDepth());
+        root.addProperty("lastTickTeleports", lastTickTeleports);
+        root.addProperty("maxTickTeleports", maxTickTeleports.get());
+        JsonObject latencies = new JsonObject();
+        timers.forEach((timer, h) -> {
+            JsonObject obj = new JsonObject();
+            obj.addProperty("count", h.count());
+            obj.addProperty("meanMillis", millis(h.meanNanos()));
+            obj.addProperty("p50Millis", millis(h.percentileNanos(50)));
+            obj.addProperty("p99Millis", millis(h.percentileNanos(99)));
+            obj.addProperty("maxMillis", millis(h.maxNanos()));
+            latencies.add(key(timer), obj);
+        });
+        root.add("latencies", latencies);
+        JsonObject counts = new JsonObject();
+        counters.forEach((counter, adder) -> counts.addProperty(key(counter), adder.sum()));
+        root.add("counters", counts);
+        JsonObject top = new JsonObject();
+        topWarps(TOP_WARPS).forEach(top::addProperty);
+        root.add("topWarps", top);
+        return root;
+    }
+
+    @Override
+    public void onWarpSet(String name, WarpPoint previous, WarpPoint point) {
+        counters.get(Counter.WARPS_SET).increment();
+    }
+
+    @Override
+    public void onWarpRemoved(String name, WarpPoint point) {
+        counters.get(Counter.WARPS_REMOVED).increment();
+        warpUses.remove(name);
+    }
+
+    @Override
+    public Map<String, Long> getCounters() {
+        Map<String, Long> map = new LinkedHashMap<>();
+        counters.forEach((counter, adder) -> map.put(key(counter), adder.sum()));
+        return map;
+    }
+
+    @Override
+    public Map<String, Long> getLatencyCounts() {
+        Map<String, Long> map = new LinkedHashMap<>();
+        timers.forEach((timer, h) -> map.put(key(timer), h.count()));
+        return map;
+    }
+
+    @Override
+    public Map<String, Double> getLatencyMeanMillis() {
+        return latencies(h -> millis(h.meanNanos()));
+    }
+
+    @Override
+    public Map<String, Double> getLatencyP50Millis() {
+        return latencies(h -> millis(h.percentileNanos(50)));
+    }
+
+    @Override
+    public Map<String, Double> getLatencyP99Millis() {
+        return latencies(h -> millis(h.percentileNanos(99)));
+    }
+
+    @Override
+    public Map<String, Double> getLatencyMaxMillis() {
+        return latencies(h -> millis(h.maxNanos()));
+    }
+
+    @Override
+    public Map<String, Long> getTopWarps() {
+        return topWarps(TOP_WARPS);
+    }
+
+    @Override
+    public int getWarpCount() {
+        return WarpManager.get().snapshot().size();
+    }
+
+    @Override
+    public int getPendingTeleports() {
+        return WarpTeleporter.get().pendingCount();
+    }
+
+    @Override
+    public long getStorageBytes() {
+        return storageBytes.get();
+    }
+
+    @Override
+    public int getSnapshotQueueDepth() {
+        return WarpManager.get().storage() instanceof FileWarpStorage file ? file.snapshotQueueDepth() : 0;
+    }
+
+    private Map<String, Double> latencies(ToDoubleFunction<LatencyHistogram> value) {
+        Map<String, Double> map = new LinkedHashMap<>();
+        timers.forEach((timer, h) -> map.put(key(timer), value.applyAsDouble(h)));
+        return map;
+    }
+
+    static double millis(long nanos) {
+        return Math.round(nanos / 10_000d) / 100d;
+    }
+
+    private static String key(Enum<?> e) {
+        return e.name().toLowerCase(Locale.ROOT);
+    }
+}
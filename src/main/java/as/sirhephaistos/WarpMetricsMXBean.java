@@ -0,0 +1,37 @@
+package as.sirhephaistos;
+
+import java.util.Map;
+
+/**
+ * JMX view of {@link WarpMetrics}, registered as {@code as.sirhephaistos.simplybetterwarps:type=WarpMetrics}.
+ * Maps are keyed by timer or counter name; latencies are in milliseconds.
+ */
+public interface WarpMetricsMXBean {
+    Map<String, Long> getCounters();
+
+    Map<String, Long> getLatencyCounts();
+
+    Map<String, Double> getLatencyMeanMillis();
+
+    Map<String, Double> getLatencyP50Millis();
+
+    Map<String, Double> getLatencyP99Millis();
+
+    Map<String, Double> getLatencyMaxMillis();
+
+    /**
+     * Teleports per warp since start, most used first, at most 20.
+     */
+    Map<String, Long> getTopWarps();
+
+    int getWarpCount();
+
+    int getPendingTeleports();
+
+    long getStorageBytes();
+
+    /**
+     * Snapshot requests waiting for the background writer, 0 unless the file storage is used.
+     */
+    int getSnapshotQueueDepth();
+}
@@ -0,0 +1,81 @@
+package as.sirhephaistos;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Immutable, sorted array of warp names used for prefix lookups (tab completion, ordered listings).
+ * Updates return a new index; lookups binary-search to the first match and walk forward, so their cost
+ * depends on the number of matches visited, not on the total number of warps.
+ */
+public final class WarpNameIndex {
+    public static final WarpNameIndex EMPTY = new WarpNameIndex(new String[0]);
+    private final String[] sorted;
+
+    private WarpNameIndex(String[] sorted) {
+        this.sorted = sorted;
+    }
+
+    /**
+     * Builds an index from normalized names.
+     */
+    public static WarpNameIndex of(Collection<String> names) {
+        String[] arr = names.toArray(new String[0]);
+        Arrays.sort(arr);
+        return new WarpNameIndex(arr);
+    }
+
+    /**
+     * Returns an index that also contains the given name (this one if it is already present).
+     */
+    public WarpNameIndex with(String name) {
+        int idx = Arrays.binarySearch(sorted, name);
+        if (idx >= 0) return this;
+        int insertAt = -idx - 1;
+        String[] next = new String[sorted.length + 1];
+        System.arraycopy(sorted, 0, next, 0, insertAt);
+        next[insertAt] = name;
+        System.arraycopy(sorted, insertAt, next, insertAt + 1, sorted.length - insertAt);
+        return new WarpNameIndex(next);
+    }
+
+    /**
+     * Returns an index without the given name (this one if it is absent).
+     */
+    public WarpNameIndex without(String name) {
+        int idx = Arrays.binarySearch(sorted, name);
+        if (idx < 0) return this;
+        String[] next = new String[sorted.length - 1];
+        System.arraycopy(sorted, 0, next, 0, idx);
+        System.arraycopy(sorted, idx + 1, next, idx, sorted.length - idx - 1);
+        return new WarpNameIndex(next);
+    }
+
+    /**
+     * Visits names starting with the given prefix in sorted order, until the visitor returns false.
+     *
+     * @param prefix  normalized (lowercase) prefix, empty for all names
+     * @param visitor return false to stop the walk
+     */
+    public void forEachWithPrefix(String prefix, Predicate<String> visitor) {
+        int idx = Arrays.binarySearch(sorted, prefix);
+        if (idx < 0) idx = -idx - 1;
+        for (int i = idx; i < sorted.length && sorted[i].startsWith(prefix); i++) {
+            if (!visitor.test(sorted[i])) return;
+        }
+    }
+
+    /**
+     * All names in sorted order, as an unmodifiable view (no copy).
+     */
+    public List<String> sorted() {
+        return Collections.unmodifiableList(Arrays.asList(sorted));
+    }
+
+    public int size() {
+        return sorted.length;
+    }
+}
@@ -0,0 +1,318 @@
+package as.sirhephaistos;
+
+import me.lucko.fabric.api.permissions.v0.Permissions;
+import net.fabricmc.fabric.api.util.TriState;
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.server.network.ServerPlayerEntity;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Per-player cache of which warps a player may see and teleport to.
+ * Results are computed on first use and reused until the player's permissions change (LuckPerms events,
+ * or {@link #ENTRY_TTL_MILLIS} as a fallback), the player leaves, or the warp is added, removed or renamed.
+ * Permission node strings are built once per warp name instead of on every check.
+ * For a warp in a group whose node ({@code simplybetter.warps.group.<group>.see} and {@code .tpto}) is set, the group
+ * decides, looked up once per player and group; only a per-warp node the player explicitly holds overrides it.
+ * Those are listed once per player from the permission provider (see {@link #setExplicitNodes}), so grouped warps
+ * cost no per-warp lookup; without a provider that can list them, the group alone decides.
+ * Other warps are decided by their own node when set, then the wildcard, then the op level.
+ * Each player keeps at most one result per registered warp plus {@link #EXTRA_CACHED_PER_PLAYER} per kind.
+ */
+public final class WarpPermissionCache implements WarpChangeListener {
+    private static final WarpPermissionCache INSTANCE = new WarpPermissionCache();
+    public static final String SEE_NODE = "simplybetter.warps.see";
+    public static final String TPTO_NODE = "simplybetter.warps.tpto";
+    private static final String SEE_WILDCARD = SEE_NODE + ".*";
+    private static final String TPTO_WILDCARD = TPTO_NODE + ".*";
+    public static final String GROUP_NODE = "simplybetter.warps.group";
+    /**
+     * Op level that grants per-warp nodes when no permission provider sets them.
+     */
+    private static final int OP_LEVEL_DEFAULT = 1;
+    /**
+     * Entries are rebuilt after this long even without a permission event, for providers that do not emit any.
+     */
+    private static final long ENTRY_TTL_MILLIS = 60_000;
+    /**
+     * Results cached per player and kind on top of one per registered warp, for names that are not warps (yet).
+     * A map over the limit is emptied and fills up again with what is used; a walk over every warp always fits.
+     */
+    private static final int EXTRA_CACHED_PER_PLAYER = 4096;
+    /**
+     * Distinct permission states remembered for sharing; past this, they are forgotten and shared anew.
+     */
+    private static final int MAX_PROFILE_TOKENS = 1024;
+    /**
+     * Map<warpNameLower, WarpNodes>
+     */
+    private final Map<String, WarpNodes> nodes = new ConcurrentHashMap<>();
+    /**
+     * Map<group, WarpNodes>
+     */
+    private final Map<String, WarpNodes> groupNodes = new ConcurrentHashMap<>();
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+    /**
+     * Map<permission state, token>, so players in the same state share one token.
+     */
+    private final Map<ProfileState, Object> profileTokens = new ConcurrentHashMap<>();
+    /**
+     * Every permission a player holds explicitly, or null if the provider cannot list them.
+     */
+    private volatile Function<UUID, Map<String, Boolean>> explicitNodes = player -> null;
+
+    private WarpPermissionCache() {
+    }
+
+    public static WarpPermissionCache get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Check if the source has permission to see the given warp.
+     */
+    public boolean canSee(ServerCommandSource src, String warpName) {
+        String name = warpName.toLowerCase(Locale.ROOT);
+        String group = groupOf(name);
+        Entry entry = entryFor(src);
+        if (entry == null) {
+            TriState groupValue = group == null ? TriState.DEFAULT : Permissions.getPermissionValue(src, groupNodesFor(group).see());
+            return resolve(src, nodesFor(name).see(), groupValue, null, Permissions.check(src, SEE_WILDCARD));
+        }
+        return cached(entry.see, name, n -> resolve(src, nodesFor(n).see(),
+                group == null ? TriState.DEFAULT : cached(entry.groupSee, group, g -> Permissions.getPermissionValue(src, groupNodesFor(g).see())),
+                entry.explicit(this, src), entry.seeAll(src)));
+    }
+
+    /**
+     * Check if the source has permission to teleport to the given warp.
+     */
+    public boolean canTpTo(ServerCommandSource src, String warpName) {
+        String name = warpName.toLowerCase(Locale.ROOT);
+        String group = groupOf(name);
+        Entry entry = entryFor(src);
+        if (entry == null) {
+            TriState groupValue = group == null ? TriState.DEFAULT : Permissions.getPermissionValue(src, groupNodesFor(group).tpto());
+            return resolve(src, nodesFor(name).tpto(), groupValue, null, Permissions.check(src, TPTO_WILDCARD));
+        }
+        return cached(entry.tpto, name, n -> resolve(src, nodesFor(n).tpto(),
+                group == null ? TriState.DEFAULT : cached(entry.groupTpto, group, g -> Permissions.getPermissionValue(src, groupNodesFor(g).tpto())),
+                entry.explicit(this, src), entry.tpAll(src)));
+    }
+
+    private static <V> V cached(Map<String, V> map, String key, Function<String, V> compute) {
+        V value = map.get(key);
+        if (value != null) return value;
+        if (map.size() >= WarpManager.get().snapshot().size() + EXTRA_CACHED_PER_PLAYER) map.clear();
+        return map.computeIfAbsent(key, compute);
+    }
+
+    /**
+     * Sets how the permissions a player holds explicitly are listed, for per-warp overrides of grouped warps.
+     * The function returns null when it cannot tell for that player.
+     */
+    public void setExplicitNodes(Function<UUID, Map<String, Boolean>> source) {
+        explicitNodes = source;
+        invalidateAll();
+    }
+
+    /**
+     * Opaque token for the source's current permission state, compared by identity. Players whose op level,
+     * wildcards, group nodes and explicit per-warp nodes all match get the same token, as they see the same warps.
+     * When the provider cannot list explicit nodes, the token is per player and replaced whenever their cached
+     * results are dropped. Null for non-player sources, which are not cached.
+     */
+    public Object profile(ServerCommandSource src) {
+        Entry entry = entryFor(src);
+        return entry == null ? null : entry.profile(this, src);
+    }
+
+    private Object profileToken(Entry entry, ServerCommandSource src) {
+        Map<String, Boolean> explicit = entry.explicit(this, src);
+        if (explicit == null) return entry;
+        Map<String, TriState> see = new HashMap<>();
+        Map<String, TriState> tpto = new HashMap<>();
+        for (String group : WarpGroups.get().groups().keySet()) {
+            see.put(group, cached(entry.groupSee, group, g -> Permissions.getPermissionValue(src, groupNodesFor(g).see())));
+            tpto.put(group, cached(entry.groupTpto, group, g -> Permissions.getPermissionValue(src, groupNodesFor(g).tpto())));
+        }
+        ProfileState state = new ProfileState(entry.opDefault, entry.seeAll(src), entry.tpAll(src), explicit, see, tpto);
+        if (profileTokens.size() >= MAX_PROFILE_TOKENS) profileTokens.clear();
+        return profileTokens.computeIfAbsent(state, s -> new Object());
+    }
+
+    /**
+     * Drops everything cached for one player, e.g. after their permissions changed.
+     */
+    public void invalidate(UUID player) {
+        entries.remove(player);
+    }
+
+    /**
+     * Drops every cached result, e.g. after a group's permissions changed.
+     */
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    @Override
+    public void onWarpSet(String name, WarpPoint previous, WarpPoint point) {
+        // results of a grouped warp depend on its group
+        if (previous == null || !Objects.equals(previous.group(), point.group())) forget(name);
+    }
+
+    @Override
+    public void onWarpRemoved(String name, WarpPoint point) {
+        forget(name);
+        nodes.remove(name);
+    }
+
+    @Override
+    public void onReload(WarpSnapshot snapshot) {
+        nodes.clear();
+        groupNodes.clear();
+        profileTokens.clear();
+        invalidateAll();
+    }
+
+    private void forget(String name) {
+        for (Entry entry : entries.values()) {
+            entry.see.remove(name);
+            entry.tpto.remove(name);
+        }
+    }
+
+    /**
+     * Group of the warp in the current registry, or null if it has none (or does not exist).
+     */
+    private static String groupOf(String warpName) {
+        WarpPoint point = WarpManager.get().snapshot().get(warpName);
+        return point == null ? null : point.group();
+    }
+
+    private WarpNodes groupNodesFor(String group) {
+        return groupNodes.computeIfAbsent(group, g -> new WarpNodes(GROUP_NODE + "." + g + ".see", GROUP_NODE + "." + g + ".tpto"));
+    }
+
+    private WarpNodes nodesFor(String warpName) {
+        return nodes.computeIfAbsent(warpName, n -> new WarpNodes(SEE_NODE + "." + n, TPTO_NODE + "." + n));
+    }
+
+    /**
+     * Cache entry for player sources; null (no caching) for the console, command blocks and the like.
+     */
+    private Entry entryFor(ServerCommandSource src) {
+        ServerPlayerEntity player = src.getPlayer();
+        if (player == null) return null;
+        boolean opDefault = src.hasPermissionLevel(OP_LEVEL_DEFAULT);
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(player.getUuid());
+        // a different op level means a different source for the same player (e.g. /execute as), so don't share results
+        if (entry == null || entry.opDefault != opDefault || now - entry.createdAt > ENTRY_TTL_MILLIS) {
+            entry = new Entry(opDefault, now);
+            entries.put(player.getUuid(), entry);
+        }
+        return entry;
+    }
+
+    /**
+     * With the group's node set: the warp's own node if the player holds it explicitly, else the group.
+     * Otherwise the warp's own node when set, else the wildcard, else the op level.
+     *
+     * @param explicit per-warp nodes the player holds explicitly, or null if unknown
+     */
+    private static boolean resolve(ServerCommandSource src, String node, TriState groupValue, Map<String, Boolean> explicit,
+                                   boolean wildcard) {
+        if (groupValue != TriState.DEFAULT) {
+            Boolean own = explicit == null ? null : explicit.get(node);
+            return own != null ? own : groupValue == TriState.TRUE;
+        }
+        TriState value = Permissions.getPermissionValue(src, node);
+        if (value != TriState.DEFAULT) return value == TriState.TRUE;
+        return wildcard || src.hasPermissionLevel(OP_LEVEL_DEFAULT);
+    }
+
+    /**
+     * The per-warp see and tpto nodes among the permissions the player holds explicitly, or null if unknown.
+     */
+    private Map<String, Boolean> listExplicit(UUID player) {
+        Map<String, Boolean> all = explicitNodes.apply(player);
+        if (all == null) return null;
+        Map<String, Boolean> warps = new HashMap<>();
+        all.forEach((node, value) -> {
+            if (node.startsWith(SEE_NODE + ".") || node.startsWith(TPTO_NODE + ".")) warps.put(node, value);
+        });
+        return warps;
+    }
+
+    private record WarpNodes(String see, String tpto) {
+    }
+
+    /**
+     * Everything the results of a player with known explicit nodes depend on.
+     */
+    private record ProfileState(boolean opDefault, boolean seeAll, boolean tpAll, Map<String, Boolean> explicit,
+                                Map<String, TriState> groupSee, Map<String, TriState> groupTpto) {
+    }
+
+    private static final class Entry {
+        final boolean opDefault;
+        final long createdAt;
+        final Map<String, Boolean> see = new ConcurrentHashMap<>();
+        final Map<String, Boolean> tpto = new ConcurrentHashMap<>();
+        final Map<String, TriState> groupSee = new ConcurrentHashMap<>();
+        final Map<String, TriState> groupTpto = new ConcurrentHashMap<>();
+        // wildcard results, looked up once per entry instead of once per warp
+        volatile Boolean seeAll;
+        volatile Boolean tpAll;
+        volatile boolean explicitListed;
+        volatile Map<String, Boolean> explicit;
+        volatile Object profile;
+        volatile long profileGroups = -1;
+
+        Entry(boolean opDefault, long createdAt) {
+            this.opDefault = opDefault;
+            this.createdAt = createdAt;
+        }
+
+        boolean seeAll(ServerCommandSource src) {
+            Boolean v = seeAll;
+            if (v == null) seeAll = v = Permissions.check(src, SEE_WILDCARD);
+            return v;
+        }
+
+        /**
+         * Permission state token, taken again once groups were created or removed.
+         */
+        Object profile(WarpPermissionCache cache, ServerCommandSource src) {
+            long groups = WarpGroups.get().version();
+            Object token = profile;
+            if (token == null || profileGroups != groups) {
+                token = cache.profileToken(this, src);
+                profile = token;
+                profileGroups = groups;
+            }
+            return token;
+        }
+
+        Map<String, Boolean> explicit(WarpPermissionCache cache, ServerCommandSource src) {
+            if (!explicitListed) {
+                explicit = cache.listExplicit(src.getPlayer().getUuid());
+                explicitListed = true;
+            }
+            return explicit;
+        }
+
+        boolean tpAll(ServerCommandSource src) {
+            Boolean v = tpAll;
+            if (v == null) tpAll = v = Permissions.check(src, TPTO_WILDCARD);
+            return v;
+        }
+    }
+}
@@ -6,19 +6,57 @@ import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.World;
 
-public record WarpPoint(String dimensionId, double x, double y, double z, float yaw, float pitch) {
+import java.util.Locale;
+
+public record WarpPoint(WarpDimension dimension, double x, double y, double z, float yaw, float pitch, String group) {
     /**
      * Creates a WarpPoint from explicit parameters
      *
-     * @param dimensionId Dimension identifier as a namespaced string, e.g. "minecraft:overworld".
+     * @param dimension   Interned dimension of the warp
      * @param x           Block X coordinate
      * @param y           Block Y coordinate
      * @param z           Block Z coordinate
      * @param yaw         Player yaw rotation
      * @param pitch       Player pitch rotation
+     * @param group       Group the warp belongs to, normalized to lowercase; null or blank for none
      *
      */
     public WarpPoint {
+        group = group == null || group.isBlank() ? null : group.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Creates a WarpPoint outside of any group.
+     */
+    public WarpPoint(WarpDimension dimension, double x, double y, double z, float yaw, float pitch) {
+        this(dimension, x, y, z, yaw, pitch, null);
+    }
+
+    /**
+     * Creates a WarpPoint from a dimension id, interned into the shared dimension table.
+     *
+     * @param dimensionId Dimension identifier as a namespaced string, e.g. "minecraft:overworld".
+     */
+    public WarpPoint(String dimensionId, double x, double y, double z, float yaw, float pitch, String group) {
+        this(WarpDimension.of(dimensionId), x, y, z, yaw, pitch, group);
+    }
+
+    public WarpPoint(String dimensionId, double x, double y, double z, float yaw, float pitch) {
+        this(dimensionId, x, y, z, yaw, pitch, null);
+    }
+
+    /**
+     * Same position in another group, or in none if {@code group} is null.
+     */
+    public WarpPoint withGroup(String group) {
+        return new WarpPoint(dimension, x, y, z, yaw, pitch, group);
+    }
+
+    /**
+     * Dimension identifier as a namespaced string, e.g. "minecraft:overworld".
+     */
+    public String dimensionId() {
+        return dimension.id();
     }
 
     /**
@@ -29,7 +67,7 @@ public record WarpPoint(String dimensionId, double x, double y, double z, float
         RegistryKey<World> dimensionKey = player.getWorld().getRegistryKey();
         Vec3d playerPos = player.getBlockPos().toCenterPos();
         return new WarpPoint(
-                dimensionKey.getValue().toString(),
+                WarpDimension.of(dimensionKey),
                 playerPos.getX(),
                 playerPos.getY(),
                 playerPos.getZ(),
@@ -48,7 +86,8 @@ public record WarpPoint(String dimensionId, double x, double y, double z, float
         double z = obj.get("z").getAsDouble();
         float yaw = obj.get("yaw").getAsFloat();
         float pitch = obj.get("pitch").getAsFloat();
-        return new WarpPoint(dimensionId, x, y, z, yaw, pitch);
+        String group = obj.has("group") ? obj.get("group").getAsString() : null;
+        return new WarpPoint(dimensionId, x, y, z, yaw, pitch, group);
     }
 
     /**
@@ -56,12 +95,15 @@ public record WarpPoint(String dimensionId, double x, double y, double z, float
      */
     public JsonObject toJson() {
         JsonObject obj = new JsonObject();
-        obj.addProperty("dimension", this.dimensionId);
+        obj.addProperty("dimension", this.dimension.id());
         obj.addProperty("x", this.x);
         obj.addProperty("y", this.y);
         obj.addProperty("z", this.z);
         obj.addProperty("yaw", this.yaw);
         obj.addProperty("pitch", this.pitch);
+        if (this.group != null) {
+            obj.addProperty("group", this.group);
+        }
         return obj;
     }
 }
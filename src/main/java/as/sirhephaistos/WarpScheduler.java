@@ -0,0 +1,287 @@
+package as.sirhephaistos;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.text.Text;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Teleport warmups and cooldowns, driven by the server tick.
+ * Both live in a {@link WarpTimerWheel}, so starting, cancelling and expiring one is constant time however many are
+ * pending. Movement of players in warmup is checked in one pass per tick; damage cancels through the damage event.
+ * Cooldowns are per player (after any teleport) and per player and warp; they are written to
+ * config/simplybetter/cooldowns.json on stop, as wall clock deadlines, and picked up again on start.
+ * All state is only touched on the server thread.
+ */
+public final class WarpScheduler {
+    private static final WarpScheduler INSTANCE = new WarpScheduler();
+    private static final Logger LOGGER = LoggerFactory.getLogger("simplybetter-warps");
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    public static final Path FILE = Path.of("config", "simplybetter", "cooldowns.json");
+    private static final long MILLIS_PER_TICK = 50;
+    /**
+     * Squared distance a player in warmup may drift (half a block) before it is cancelled.
+     */
+    private static final double MOVE_TOLERANCE_SQ = 0.5 * 0.5;
+    private final WarpTimerWheel<Warmup> warmupWheel = new WarpTimerWheel<>();
+    private final WarpTimerWheel<CooldownKey> cooldownWheel = new WarpTimerWheel<>();
+    private final Map<UUID, WarpTimerWheel.Timeout<Warmup>> warmups = new HashMap<>();
+    private final Map<CooldownKey, WarpTimerWheel.Timeout<CooldownKey>> cooldowns = new HashMap<>();
+    private MinecraftServer server;
+
+    private WarpScheduler() {
+    }
+
+    public static WarpScheduler get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Loads the cooldowns saved by the last stop. Called once the config is loaded.
+     */
+    public void start(MinecraftServer server) {
+        this.server = server;
+        load();
+    }
+
+    /**
+     * Ticks the player still has to wait before using this warp, 0 if none. The longer of both cooldowns counts.
+     */
+    public long cooldownRemainingTicks(UUID player, String warpName) {
+        long remaining = remaining(new CooldownKey(player, null));
+        return Math.max(remaining, remaining(new CooldownKey(player, warpName.toLowerCase(Locale.ROOT))));
+    }
+
+    private long remaining(CooldownKey key) {
+        var timeout = cooldowns.get(key);
+        return timeout == null ? 0 : timeout.remainingTicks();
+    }
+
+    /**
+     * Starts the configured cooldowns after a teleport of the player to the warp.
+     */
+    public void startCooldown(UUID player, String warpName) {
+        var cfg = WarpConfig.get().cooldown;
+        if (cfg.playerSeconds > 0) {
+            schedule(new CooldownKey(player, null), cfg.playerSeconds * 20L);
+        }
+        if (cfg.warpSeconds > 0) {
+            schedule(new CooldownKey(player, warpName.toLowerCase(Locale.ROOT)), cfg.warpSeconds * 20L);
+        }
+    }
+
+    private void schedule(CooldownKey key, long ticks) {
+        var previous = cooldowns.put(key, cooldownWheel.schedule(key, ticks));
+        if (previous != null) previous.cancel();
+    }
+
+    /**
+     * Clears every cooldown of the player. Returns how many there were.
+     */
+    public int clearCooldowns(UUID player) {
+        List<CooldownKey> keys = cooldowns.keySet().stream().filter(key -> key.player().equals(player)).toList();
+        keys.forEach(key -> cooldowns.remove(key).cancel());
+        return keys.size();
+    }
+
+    /**
+     * Runs {@code then} with the player after {@code ticks}, unless the warmup is cancelled first.
+     * A new warmup replaces the one the player was still waiting on.
+     */
+    public void warmup(ServerPlayerEntity player, String warpName, int ticks, Consumer<ServerPlayerEntity> then) {
+        cancelWarmup(player.getUuid(), null);
+        Warmup warmup = new Warmup(player.getUuid(), warpName, player.getServerWorld(),
+                player.getX(), player.getY(), player.getZ(), then);
+        warmups.put(player.getUuid(), warmupWheel.schedule(warmup, ticks));
+    }
+
+    /**
+     * Cancels the player's warmup, if any.
+     *
+     * @param reason told to the player, or null to cancel silently
+     * @return true if a warmup was pending
+     */
+    public boolean cancelWarmup(UUID player, String reason) {
+        var timeout = warmups.remove(player);
+        if (timeout == null) return false;
+        timeout.cancel();
+        WarpMetrics.get().increment(WarpMetrics.Counter.WARMUP_CANCELLATIONS);
+        if (reason != null && server != null) {
+            ServerPlayerEntity p = server.getPlayerManager().getPlayer(player);
+            if (p != null) {
+                p.sendMessage(Text.literal("[Simply Better Warps] Teleport to '%s' cancelled: %s."
+                        .formatted(timeout.value().warpName(), reason)));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Cancels the player's warmup only if it leads to that warp.
+     *
+     * @param reason told to the player, or null to cancel silently
+     * @return true if such a warmup was pending
+     */
+    public boolean cancelWarmup(UUID player, String warpName, String reason) {
+        var timeout = warmups.get(player);
+        if (timeout == null || !timeout.value().warpName().equalsIgnoreCase(warpName)) return false;
+        return cancelWarmup(player, reason);
+    }
+
+    /**
+     * Called when a player takes damage.
+     */
+    public void onDamage(UUID player) {
+        if (WarpConfig.get().warmup.cancelOnDamage && warmups.containsKey(player)) {
+            cancelWarmup(player, "you took damage");
+        }
+    }
+
+    /**
+     * Advances both wheels and checks who moved. Called at the end of every server tick.
+     */
+    public void tick() {
+        if (!warmups.isEmpty() && WarpConfig.get().warmup.cancelOnMove) checkMovement();
+        warmupWheel.advance(this::complete);
+        cooldownWheel.advance(cooldowns::remove);
+    }
+
+    private void checkMovement() {
+        List<UUID> moved = new ArrayList<>();
+        for (var timeout : warmups.values()) {
+            Warmup warmup = timeout.value();
+            ServerPlayerEntity player = server.getPlayerManager().getPlayer(warmup.player());
+            if (player == null) continue;
+            double dx = player.getX() - warmup.x();
+            double dy = player.getY() - warmup.y();
+            double dz = player.getZ() - warmup.z();
+            if (player.getServerWorld() != warmup.world() || dx * dx + dy * dy + dz * dz > MOVE_TOLERANCE_SQ) {
+                moved.add(warmup.player());
+            }
+        }
+        moved.forEach(player -> cancelWarmup(player, "you moved"));
+    }
+
+    private void complete(Warmup warmup) {
+        warmups.remove(warmup.player());
+        ServerPlayerEntity player = server.getPlayerManager().getPlayer(warmup.player());
+        if (player == null || player.isRemoved()) return;
+        warmup.then().accept(player);
+    }
+
+    /**
+     * Pending warmups, soonest first, for the admin view.
+     */
+    public List<PendingWarmup> pendingWarmups() {
+        return warmups.values().stream()
+                .map(t -> new PendingWarmup(t.value().player(), t.value().warpName(), t.remainingTicks()))
+                .sorted(Comparator.comparingLong(PendingWarmup::remainingTicks))
+                .toList();
+    }
+
+    public int pendingWarmupCount() {
+        return warmups.size();
+    }
+
+    public int activeCooldowns() {
+        return cooldowns.size();
+    }
+
+    /**
+     * Drops pending warmups and writes the cooldowns. Called when the server stops.
+     */
+    public void shutdown() {
+        warmups.clear();
+        warmupWheel.clear();
+        save();
+        cooldowns.clear();
+        cooldownWheel.clear();
+        server = null;
+    }
+
+    private void save() {
+        long now = System.currentTimeMillis();
+        JsonArray array = new JsonArray();
+        cooldowns.forEach((key, timeout) -> {
+            long remaining = timeout.remainingTicks();
+            if (remaining <= 0) return;
+            JsonObject obj = new JsonObject();
+            obj.addProperty("player", key.player().toString());
+            if (key.warp() != null) obj.addProperty("warp", key.warp());
+            obj.addProperty("expiresAt", now + remaining * MILLIS_PER_TICK);
+            array.add(obj);
+        });
+        try {
+            if (array.isEmpty()) {
+                Files.deleteIfExists(FILE);
+                return;
+            }
+            Files.createDirectories(FILE.getParent());
+            Path tmp = FILE.resolveSibling(FILE.getFileName() + ".tmp");
+            try (Writer writer = Files.newBufferedWriter(tmp)) {
+                GSON.toJson(array, writer);
+            }
+            Files.move(tmp, FILE, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (Exception e) {
+            LOGGER.error("[Simply Better Warps] Failed to save cooldowns to {}", FILE, e);
+        }
+    }
+
+    private void load() {
+        cooldowns.values().forEach(WarpTimerWheel.Timeout::cancel);
+        cooldowns.clear();
+        if (!Files.exists(FILE)) return;
+        long now = System.currentTimeMillis();
+        try (Reader reader = Files.newBufferedReader(FILE)) {
+            for (JsonElement element : JsonParser.parseReader(reader).getAsJsonArray()) {
+                JsonObject obj = element.getAsJsonObject();
+                long remaining = (obj.get("expiresAt").getAsLong() - now + MILLIS_PER_TICK - 1) / MILLIS_PER_TICK;
+                if (remaining <= 0) continue;
+                UUID player = UUID.fromString(obj.get("player").getAsString());
+                String warp = obj.has("warp") ? obj.get("warp").getAsString() : null;
+                schedule(new CooldownKey(player, warp), remaining);
+            }
+            LOGGER.info("[Simply Better Warps] Restored {} cooldowns", cooldowns.size());
+        } catch (Exception e) {
+            LOGGER.error("[Simply Better Warps] Failed to load cooldowns from {}, starting without", FILE, e);
+        }
+    }
+
+    /**
+     * A player waiting for a teleport.
+     */
+    public record PendingWarmup(UUID player, String warpName, long remainingTicks) {
+    }
+
+    private record Warmup(UUID player, String warpName, ServerWorld world, double x, double y, double z,
+                          Consumer<ServerPlayerEntity> then) {
+    }
+
+    /**
+     * Cooldown of a player for one warp, or for every warp when {@code warp} is null.
+     */
+    private record CooldownKey(UUID player, String warp) {
+    }
+}
@@ -0,0 +1,23 @@
+package as.sirhephaistos;
+
+import java.util.Map;
+
+/**
+ * Immutable, versioned view of every warp, as published by {@link WarpManager}.
+ * Safe to read from any thread; a newer version is published on every edit instead of mutating this one.
+ *
+ * @param version increases by one on every published change
+ * @param warps   Map<warpNameLower, WarpPoint>, unmodifiable
+ * @param names   sorted index over the keys of {@code warps}
+ */
+public record WarpSnapshot(long version, Map<String, WarpPoint> warps, WarpNameIndex names) {
+    public static final WarpSnapshot EMPTY = new WarpSnapshot(0, Map.of(), WarpNameIndex.EMPTY);
+
+    public int size() {
+        return warps.size();
+    }
+
+    public WarpPoint get(String normalizedName) {
+        return warps.get(normalizedName);
+    }
+}
@@ -0,0 +1,229 @@
+package as.sirhephaistos;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Writes warp snapshots to disk on a dedicated thread.
+ * Requests arriving within the debounce window are coalesced, only the newest snapshot is written.
+ * Each write goes to a temp file that is fsynced and then atomically moved over the target.
+ * The writer remembers what it last put on disk, so {@link WarpFileWatcher} can tell its own writes from external edits.
+ */
+public final class WarpSnapshotWriter {
+    private static final Logger LOGGER = LoggerFactory.getLogger("simplybetter-warps");
+    private final Path file;
+    private final WarpFileFormat format;
+    private final long debounceMillis;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "simplybetter-warps-writer");
+        t.setDaemon(true);
+        return t;
+    });
+    /**
+     * Guards {@link #pending} and {@link #scheduled}.
+     */
+    private final Object queueLock = new Object();
+    /**
+     * Held for the whole duration of a write, so a synchronous flush never races an in-flight background write,
+     * and {@link #readFile()} never sees the file and {@link #onDisk} from two different writes.
+     */
+    private final Object writeLock = new Object();
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private Request pending;
+    private boolean scheduled;
+    private volatile OnDisk onDisk = new OnDisk(Map.of(), OnDisk.UNKNOWN_CHECKSUM);
+
+    public WarpSnapshotWriter(Path file, WarpFileFormat format, long debounceMillis) {
+        this.file = file;
+        this.format = format;
+        this.debounceMillis = debounceMillis;
+    }
+
+    /**
+     * Queues an immutable snapshot for writing. Returns immediately.
+     *
+     * @param snapshot  warps to write, must not be mutated afterwards
+     * @param onWritten run on the writer thread once this snapshot (or a newer one) is on disk, may be null
+     */
+    public void submit(Map<String, WarpPoint> snapshot, Runnable onWritten) {
+        synchronized (queueLock) {
+            pending = new Request(snapshot, onWritten);
+            queueDepth.incrementAndGet();
+            if (scheduled) return;
+            scheduled = true;
+        }
+        executor.schedule(this::drain, debounceMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Writes the given snapshot on the calling thread, dropping any older queued one.
+     */
+    public void writeNow(Map<String, WarpPoint> snapshot) throws IOException {
+        synchronized (writeLock) {
+            synchronized (queueLock) {
+                pending = null;
+                queueDepth.set(0);
+            }
+            write(snapshot);
+        }
+    }
+
+    /**
+     * Writes whatever is still queued on the calling thread.
+     */
+    public void flush() {
+        synchronized (writeLock) {
+            Request request = takePending();
+            if (request != null) {
+                writeRequest(request);
+            }
+        }
+    }
+
+    /**
+     * Flushes and stops the writer thread.
+     */
+    public void close() {
+        flush();
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                LOGGER.warn("[Simply Better Warps] Snapshot writer did not stop in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drain() {
+        synchronized (writeLock) {
+            Request request = takePending();
+            if (request != null) {
+                writeRequest(request);
+            }
+        }
+    }
+
+    private Request takePending() {
+        synchronized (queueLock) {
+            Request request = pending;
+            pending = null;
+            scheduled = false;
+            queueDepth.set(0);
+            return request;
+        }
+    }
+
+    private void writeRequest(Request request) {
+        try {
+            write(request.snapshot());
+            if (request.onWritten() != null) {
+                request.onWritten().run();
+            }
+        } catch (Exception e) {
+            WarpMetrics.get().increment(WarpMetrics.Counter.STORAGE_ERRORS);
+            LOGGER.error("[Simply Better Warps] Failed to write warp snapshot to {}", file, e);
+        }
+    }
+
+    private void write(Map<String, WarpPoint> snapshot) throws IOException {
+        long start = System.nanoTime();
+        Files.createDirectories(file.getParent());
+
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            CheckedOutputStream out = new CheckedOutputStream(Channels.newOutputStream(channel), new CRC32());
+            format.write(snapshot, out);
+            channel.force(true);
+            WarpMetrics.get().recordStorageBytes(channel.size());
+            // published before the move; readers that need both consistent hold writeLock
+            onDisk = new OnDisk(snapshot, out.getChecksum().getValue());
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory();
+
+        long elapsed = System.nanoTime() - start;
+        WarpMetrics.get().timer(WarpMetrics.Timer.SAVE).record(elapsed);
+        LOGGER.debug("[Simply Better Warps] Wrote {} warps to {} in {} ms", snapshot.size(), file, elapsed / 1_000_000);
+    }
+
+    /**
+     * Makes the rename itself durable. Not every platform allows opening a directory, so failures are ignored.
+     */
+    private void syncDirectory() {
+        try (FileChannel dir = FileChannel.open(file.getParent(), StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * Number of snapshot requests waiting to be written (coalesced into one write).
+     */
+    public int queueDepth() {
+        return queueDepth.get();
+    }
+
+    /**
+     * Reads the file together with what this writer last put there, with no write of its own in between.
+     */
+    public FileContent readFile() throws IOException {
+        synchronized (writeLock) {
+            return new FileContent(onDisk, Files.readAllBytes(file));
+        }
+    }
+
+    /**
+     * Records that the file now holds the given warps without this writer having written them,
+     * e.g. after loading it.
+     */
+    public void markOnDisk(Map<String, WarpPoint> warps, long checksum) {
+        synchronized (writeLock) {
+            onDisk = new OnDisk(warps, checksum);
+        }
+    }
+
+    /**
+     * Like {@link #markOnDisk}, for an external edit read while the file held {@code expected}.
+     * Skipped if this writer replaced the file since, the watcher then compares against that write.
+     */
+    public void markOnDisk(OnDisk expected, Map<String, WarpPoint> warps, long checksum) {
+        synchronized (writeLock) {
+            if (onDisk == expected) onDisk = new OnDisk(warps, checksum);
+        }
+    }
+
+    /**
+     * Content of the snapshot file as far as the mod knows.
+     *
+     * @param warps    warps in the file, never mutated
+     * @param checksum CRC32 of the file bytes, or {@link #UNKNOWN_CHECKSUM}
+     */
+    public record OnDisk(Map<String, WarpPoint> warps, long checksum) {
+        public static final long UNKNOWN_CHECKSUM = -1;
+    }
+
+    /**
+     * Bytes of the file and what the writer knew about it when they were read.
+     */
+    public record FileContent(OnDisk known, byte[] bytes) {
+    }
+
+    private record Request(Map<String, WarpPoint> snapshot, Runnable onWritten) {
+    }
+}
@@ -0,0 +1,227 @@
+package as.sirhephaistos;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Predicate;
+
+/**
+ * Uniform grid over warp coordinates, one per dimension, for nearest-warp and radius queries.
+ * Warps are bucketed by their horizontal cell; queries only visit the cells that can hold a match,
+ * falling back to the occupied cells when the area to cover is larger than the set of occupied cells.
+ * Kept in sync by listening to the registry.
+ */
+public final class WarpSpatialIndex implements WarpChangeListener {
+    private static final WarpSpatialIndex INSTANCE = new WarpSpatialIndex();
+    /**
+     * Cell edge length in blocks.
+     */
+    private static final int CELL_SIZE = 128;
+    private final Map<WarpDimension, Grid> grids = new HashMap<>();
+
+    /**
+     * The server uses {@link #get()}; separate instances exist for benchmarks.
+     */
+    WarpSpatialIndex() {
+    }
+
+    public static WarpSpatialIndex get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Up to {@code k} warps closest to the given position, closest first.
+     *
+     * @param filter only warps whose name passes are returned, e.g. a permission check
+     */
+    public synchronized List<Hit> nearest(WarpDimension dimension, double x, double y, double z, int k, Predicate<String> filter) {
+        Grid grid = grids.get(dimension);
+        if (grid == null || k <= 0) return List.of();
+        return grid.nearest(x, y, z, k, filter);
+    }
+
+    /**
+     * Every warp within {@code radius} blocks of the given position, closest first.
+     */
+    public synchronized List<Hit> within(WarpDimension dimension, double x, double y, double z, double radius, Predicate<String> filter) {
+        Grid grid = grids.get(dimension);
+        if (grid == null) return List.of();
+        return grid.within(x, y, z, radius, filter);
+    }
+
+    @Override
+    public synchronized void onWarpSet(String name, WarpPoint previous, WarpPoint point) {
+        if (previous != null) remove(name, previous);
+        grids.computeIfAbsent(point.dimension(), d -> new Grid()).add(name, point);
+    }
+
+    @Override
+    public synchronized void onWarpRemoved(String name, WarpPoint point) {
+        remove(name, point);
+    }
+
+    @Override
+    public synchronized void onReload(WarpSnapshot snapshot) {
+        grids.clear();
+        snapshot.warps().forEach((name, point) -> grids.computeIfAbsent(point.dimension(), d -> new Grid()).add(name, point));
+    }
+
+    private void remove(String name, WarpPoint point) {
+        Grid grid = grids.get(point.dimension());
+        if (grid != null && grid.remove(name, point) && grid.isEmpty()) {
+            grids.remove(point.dimension());
+        }
+    }
+
+    private static int cell(double coordinate) {
+        return Math.floorDiv((int) Math.floor(coordinate), CELL_SIZE);
+    }
+
+    private static long key(int cellX, int cellZ) {
+        return ((long) cellX << 32) | (cellZ & 0xFFFFFFFFL);
+    }
+
+    /**
+     * A query result.
+     *
+     * @param distance straight-line distance in blocks
+     */
+    public record Hit(String name, WarpPoint point, double distance) {
+    }
+
+    private static final class Grid {
+        /**
+         * Map<cellKey, Map<warpName, WarpPoint>>
+         */
+        private final Map<Long, Map<String, WarpPoint>> cells = new HashMap<>();
+        // bounds of every cell ever occupied; only widened, reset when the grid is dropped
+        private int minX = Integer.MAX_VALUE;
+        private int maxX = Integer.MIN_VALUE;
+        private int minZ = Integer.MAX_VALUE;
+        private int maxZ = Integer.MIN_VALUE;
+
+        void add(String name, WarpPoint point) {
+            int cx = cell(point.x());
+            int cz = cell(point.z());
+            cells.computeIfAbsent(key(cx, cz), k -> new HashMap<>()).put(name, point);
+            minX = Math.min(minX, cx);
+            maxX = Math.max(maxX, cx);
+            minZ = Math.min(minZ, cz);
+            maxZ = Math.max(maxZ, cz);
+        }
+
+        boolean remove(String name, WarpPoint point) {
+            long key = key(cell(point.x()), cell(point.z()));
+            Map<String, WarpPoint> bucket = cells.get(key);
+            if (bucket == null || bucket.remove(name) == null) return false;
+            if (bucket.isEmpty()) cells.remove(key);
+            return true;
+        }
+
+        boolean isEmpty() {
+            return cells.isEmpty();
+        }
+
+        List<Hit> nearest(double x, double y, double z, int k, Predicate<String> filter) {
+            int cx = cell(x);
+            int cz = cell(z);
+            // max-heap on distance holding the best k so far
+            PriorityQueue<Hit> best = new PriorityQueue<>(Comparator.comparingDouble(Hit::distance).reversed());
+            int maxRing = Math.max(Math.max(cx - minX, maxX - cx), Math.max(cz - minZ, maxZ - cz));
+            for (int ring = 0; ring <= maxRing; ring++) {
+                // anything in this ring is at least (ring - 1) cells away horizontally
+                if (best.size() == k && best.peek().distance() <= (ring - 1) * (double) CELL_SIZE) break;
+                int ringCells = ring == 0 ? 1 : 8 * ring;
+                if (ringCells > cells.size()) {
+                    // sparse grid: cheaper to walk the occupied cells this and every further ring would visit
+                    for (var entry : cells.entrySet()) {
+                        int ex = (int) (entry.getKey() >> 32);
+                        int ez = (int) (long) entry.getKey();
+                        if (Math.max(Math.abs(ex - cx), Math.abs(ez - cz)) >= ring) {
+                            offer(best, entry.getValue(), x, y, z, k, filter);
+                        }
+                    }
+                    break;
+                }
+                if (ring == 0) {
+                    visit(best, cx, cz, x, y, z, k, filter);
+                    continue;
+                }
+                for (int i = -ring; i <= ring; i++) {
+                    visit(best, cx + i, cz - ring, x, y, z, k, filter);
+                    visit(best, cx + i, cz + ring, x, y, z, k, filter);
+                }
+                for (int i = -ring + 1; i < ring; i++) {
+                    visit(best, cx - ring, cz + i, x, y, z, k, filter);
+                    visit(best, cx + ring, cz + i, x, y, z, k, filter);
+                }
+            }
+            List<Hit> result = new ArrayList<>(best);
+            result.sort(Comparator.comparingDouble(Hit::distance));
+            return result;
+        }
+
+        List<Hit> within(double x, double y, double z, double radius, Predicate<String> filter) {
+            int fromX = Math.max(cell(x - radius), minX);
+            int toX = Math.min(cell(x + radius), maxX);
+            int fromZ = Math.max(cell(z - radius), minZ);
+            int toZ = Math.min(cell(z + radius), maxZ);
+            List<Hit> hits = new ArrayList<>();
+            if (fromX > toX || fromZ > toZ) return hits;
+            long area = (long) (toX - fromX + 1) * (toZ - fromZ + 1);
+            if (area > cells.size()) {
+                for (var entry : cells.entrySet()) {
+                    int ex = (int) (entry.getKey() >> 32);
+                    int ez = (int) (long) entry.getKey();
+                    if (ex >= fromX && ex <= toX && ez >= fromZ && ez <= toZ) {
+                        collect(hits, entry.getValue(), x, y, z, radius, filter);
+                    }
+                }
+            } else {
+                for (int ix = fromX; ix <= toX; ix++) {
+                    for (int iz = fromZ; iz <= toZ; iz++) {
+                        Map<String, WarpPoint> bucket = cells.get(key(ix, iz));
+                        if (bucket != null) collect(hits, bucket, x, y, z, radius, filter);
+                    }
+                }
+            }
+            hits.sort(Comparator.comparingDouble(Hit::distance));
+            return hits;
+        }
+
+        private void visit(PriorityQueue<Hit> best, int cellX, int cellZ, double x, double y, double z, int k, Predicate<String> filter) {
+            Map<String, WarpPoint> bucket = cells.get(key(cellX, cellZ));
+            if (bucket != null) offer(best, bucket, x, y, z, k, filter);
+        }
+
+        private static void offer(PriorityQueue<Hit> best, Map<String, WarpPoint> bucket, double x, double y, double z, int k, Predicate<String> filter) {
+            for (var entry : bucket.entrySet()) {
+                double d = distance(entry.getValue(), x, y, z);
+                if (best.size() == k && d >= best.peek().distance()) continue;
+                // permission checks only for warps that would make it into the result
+                if (!filter.test(entry.getKey())) continue;
+                best.add(new Hit(entry.getKey(), entry.getValue(), d));
+                if (best.size() > k) best.poll();
+            }
+        }
+
+        private static void collect(List<Hit> hits, Map<String, WarpPoint> bucket, double x, double y, double z, double radius, Predicate<String> filter) {
+            for (var entry : bucket.entrySet()) {
+                double d = distance(entry.getValue(), x, y, z);
+                if (d <= radius && filter.test(entry.getKey())) {
+                    hits.add(new Hit(entry.getKey(), entry.getValue(), d));
+                }
+            }
+        }
+
+        private static double distance(WarpPoint point, double x, double y, double z) {
+            double dx = point.x() - x;
+            double dy = point.y() - y;
+            double dz = point.z() - z;
+            return Math.sqrt(dx * dx + dy * dy + dz * dz);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package as.sirhephaistos;
+
+import com.google.gson.annotations.SerializedName;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Where the warp registry is persisted. The registry itself stays in {@link WarpManager}'s memory snapshot;
+ * a storage loads everything once on start and then receives every change as it happens.
+ * Change callbacks are invoked by {@link WarpManager} under its write lock, in order.
+ */
+public interface WarpStorage {
+    /**
+     * Reads every warp, keyed by normalized name. Called once before any change callback.
+     */
+    Map<String, WarpPoint> load() throws IOException;
+
+    void set(String name, WarpPoint point);
+
+    /**
+     * Sets many warps at once, e.g. a bulk import; storages should write them as a single batch.
+     */
+    void setAll(Map<String, WarpPoint> points);
+
+    void delete(String name);
+
+    void rename(String from, String to, WarpPoint point);
+
+    /**
+     * Periodic checkpoint, called from the server thread. Must return quickly.
+     */
+    void autosave();
+
+    /**
+     * Makes the given full snapshot durable before returning.
+     */
+    void save(Map<String, WarpPoint> snapshot) throws IOException;
+
+    /**
+     * Releases files, threads and connections. Does not save.
+     */
+    void close() throws IOException;
+
+    /**
+     * Storage implementations selectable in the config.
+     */
+    enum Backend {
+        /**
+         * A snapshot file (JSON or binary) plus an append-only journal, see {@link FileWarpStorage}.
+         */
+        @SerializedName("file")
+        FILE,
+        /**
+         * An embedded SQLite database with one row per warp, see {@link SqliteWarpStorage}.
+         */
+        @SerializedName("sqlite")
+        SQLITE
+    }
+}
@@ -0,0 +1,343 @@
+package as.sirhephaistos;
+
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.server.world.ChunkTicketType;
+import net.minecraft.server.world.OptionalChunk;
+import net.minecraft.server.world.ServerChunkManager;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.text.Text;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.ChunkStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Moves players to warps without stalling the tick on chunk loading.
+ * If the destination chunk is not loaded, it is requested through the chunk manager's future API and the player
+ * stays where they are until it is ready; the teleport then happens on the server thread.
+ * <p>
+ * With the teleport queue enabled, requests are grouped per destination chunk (so each chunk is loaded once) and
+ * drained at the end of every tick within a budget of teleports and chunk loads; queued players see their position.
+ * Pending teleports time out, are replaced by a newer /warp, and are cancelled when the player leaves.
+ * All state is only touched on the server thread.
+ */
+public final class WarpTeleporter {
+    private static final WarpTeleporter INSTANCE = new WarpTeleporter();
+    private static final Logger LOGGER = LoggerFactory.getLogger("simplybetter-warps");
+    /**
+     * Keeps the destination chunk loading while a teleport waits for it. Vanilla's own request ticket expires after a tick.
+     */
+    public static final ChunkTicketType<ChunkPos> WARP_TELEPORT =
+            ChunkTicketType.create("simplybetter_warp_teleport", Comparator.comparingLong(ChunkPos::toLong));
+    /**
+     * Same radius as vanilla's post-teleport ticket.
+     */
+    private static final int TICKET_RADIUS = 1;
+    /**
+     * Ticks between two queue position updates sent to waiting players.
+     */
+    private static final int POSITION_UPDATE_TICKS = 20;
+    /**
+     * Waiting destinations in arrival order of their first request.
+     */
+    private final Map<Destination, Group> groups = new LinkedHashMap<>();
+    private final Map<UUID, Request> requests = new HashMap<>();
+    private int teleportsThisTick;
+    private int chunkLoadsThisTick;
+    private int ticksUntilPositionUpdate;
+
+    private WarpTeleporter() {
+    }
+
+    public static WarpTeleporter get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Teleports the player to the warp: right away if the destination chunk is loaded and nothing is queued,
+     * otherwise once the chunk has loaded and the queue reaches the player.
+     *
+     * @param source   source to report to
+     * @param player   player to move
+     * @param warpName warp name, for messages
+     * @param wp       destination
+     * @param world    destination world
+     */
+    public void teleport(ServerCommandSource source, ServerPlayerEntity player, String warpName, WarpPoint wp, ServerWorld world) {
+        long start = System.nanoTime();
+        ChunkPos chunkPos = new ChunkPos(BlockPos.ofFloored(wp.x(), wp.y(), wp.z()));
+        ServerChunkManager chunkManager = world.getChunkManager();
+        var queueCfg = WarpConfig.get().teleportQueue;
+        // a newer /warp replaces whatever the player was still waiting for
+        cancel(player.getUuid(), false);
+
+        if (!WarpConfig.get().asyncChunkLoading) {
+            chunkManager.addTicket(ChunkTicketType.POST_TELEPORT, chunkPos, TICKET_RADIUS, player.getId());
+            world.getChunk(chunkPos.x, chunkPos.z);
+            finish(source, player, warpName, wp, world, start);
+            return;
+        }
+        boolean withinBudget = !queueCfg.enabled || (requests.isEmpty() && teleportsThisTick < queueCfg.maxTeleportsPerTick);
+        if (withinBudget && chunkManager.isChunkLoaded(chunkPos.x, chunkPos.z)) {
+            teleportsThisTick++;
+            chunkManager.addTicket(ChunkTicketType.POST_TELEPORT, chunkPos, TICKET_RADIUS, player.getId());
+            finish(source, player, warpName, wp, world, start);
+            return;
+        }
+
+        Destination destination = new Destination(world, chunkPos);
+        Group group = groups.computeIfAbsent(destination, Group::new);
+        Request request = new Request(source, player.getUuid(), warpName, wp, group, start);
+        group.requests.add(request);
+        requests.put(player.getUuid(), request);
+
+        if (!queueCfg.enabled) {
+            if (group.state == GroupState.WAITING) startLoad(group);
+            if (group.state == GroupState.LOADING) {
+                source.sendFeedback(() -> Text.literal("[Simply Better Warps] Loading destination of '" + warpName + "'..."), false);
+            }
+        } else {
+            int position = requests.size();
+            source.sendFeedback(() -> Text.literal("[Simply Better Warps] Queued for '" + warpName + "', position " + position + "."), false);
+        }
+    }
+
+    /**
+     * Drains the queue within the per-tick budgets. Called at the end of every server tick.
+     */
+    public void tick() {
+        var queueCfg = WarpConfig.get().teleportQueue;
+        if (queueCfg.enabled && !groups.isEmpty()) {
+            Iterator<Group> it = groups.values().iterator();
+            while (it.hasNext() && teleportsThisTick < queueCfg.maxTeleportsPerTick) {
+                Group group = it.next();
+                if (group.state == GroupState.WAITING) {
+                    if (group.destination.world().getChunkManager().isChunkLoaded(group.destination.pos().x, group.destination.pos().z)) {
+                        group.state = GroupState.READY;
+                    } else if (chunkLoadsThisTick < queueCfg.maxChunkLoadsPerTick) {
+                        chunkLoadsThisTick++;
+                        startLoad(group);
+                    }
+                }
+                if (group.state == GroupState.READY) {
+                    teleportsThisTick += teleportGroup(group, queueCfg.maxTeleportsPerTick - teleportsThisTick);
+                    if (group.requests.isEmpty()) {
+                        it.remove();
+                        releaseTicket(group);
+                    }
+                }
+            }
+            if (--ticksUntilPositionUpdate <= 0) {
+                ticksUntilPositionUpdate = POSITION_UPDATE_TICKS;
+                sendPositions();
+            }
+        }
+        WarpMetrics.get().recordTickTeleports(teleportsThisTick);
+        teleportsThisTick = 0;
+        chunkLoadsThisTick = 0;
+    }
+
+    private void startLoad(Group group) {
+        group.state = GroupState.LOADING;
+        group.loadStartNanos = System.nanoTime();
+        ServerWorld world = group.destination.world();
+        ChunkPos pos = group.destination.pos();
+        ServerChunkManager chunkManager = world.getChunkManager();
+        chunkManager.addTicket(WARP_TELEPORT, pos, TICKET_RADIUS, pos);
+        group.ticketHeld = true;
+
+        MinecraftServer server = world.getServer();
+        chunkManager.getChunkFutureSyncOnMainThread(pos.x, pos.z, ChunkStatus.FULL, true)
+                .copy()
+                .orTimeout(WarpConfig.get().chunkLoadTimeoutSeconds, TimeUnit.SECONDS)
+                .whenCompleteAsync((chunk, error) -> onChunkReady(group, chunk, error), server);
+    }
+
+    private void onChunkReady(Group group, OptionalChunk<Chunk> chunk, Throwable error) {
+        // every request of this group was cancelled meanwhile
+        if (groups.get(group.destination) != group) {
+            releaseTicket(group);
+            return;
+        }
+        // a chunk that could not be loaded (or was unloaded meanwhile) completes normally with an empty result
+        if (error == null && !chunk.isPresent()) {
+            error = new IllegalStateException("Chunk " + group.destination.pos() + " is unavailable: " + chunk.getError());
+        }
+        if (error != null) {
+            groups.remove(group.destination);
+            releaseTicket(group);
+            boolean timedOut = error instanceof TimeoutException || error.getCause() instanceof TimeoutException;
+            if (timedOut) {
+                WarpMetrics.get().increment(WarpMetrics.Counter.TELEPORT_TIMEOUTS);
+            } else {
+                LOGGER.error("[Simply Better Warps] Failed to load destination chunk {}", group.destination.pos(), error);
+            }
+            for (Request request : group.requests) {
+                requests.remove(request.player());
+                request.source().sendError(Text.literal(timedOut
+                        ? "[Simply Better Warps] Destination of '" + request.warpName() + "' took too long to load, try again."
+                        : "[Simply Better Warps] Could not load the destination of '" + request.warpName() + "'."));
+            }
+            return;
+        }
+
+        long waited = System.nanoTime() - group.loadStartNanos;
+        WarpMetrics.get().timer(WarpMetrics.Timer.CHUNK_WAIT).record(waited);
+        LOGGER.debug("[Simply Better Warps] Chunk {} ready after {} ms for {} teleports", group.destination.pos(), waited / 1_000_000, group.requests.size());
+        group.state = GroupState.READY;
+        if (!WarpConfig.get().teleportQueue.enabled) {
+            teleportGroup(group, Integer.MAX_VALUE);
+            groups.remove(group.destination);
+            releaseTicket(group);
+        }
+    }
+
+    /**
+     * Teleports up to {@code budget} players of a ready group, oldest first.
+     *
+     * @return number of requests consumed
+     */
+    private int teleportGroup(Group group, int budget) {
+        int done = 0;
+        long now = System.nanoTime();
+        while (done < budget && !group.requests.isEmpty()) {
+            Request request = group.requests.poll();
+            requests.remove(request.player());
+            done++;
+            ServerWorld world = group.destination.world();
+            ServerPlayerEntity player = world.getServer().getPlayerManager().getPlayer(request.player());
+            if (player == null || player.isRemoved()) continue;
+            WarpMetrics.get().timer(WarpMetrics.Timer.QUEUE_WAIT).record(now - request.enqueuedNanos());
+            WarpMetrics.get().increment(WarpMetrics.Counter.QUEUED_TELEPORTS);
+            world.getChunkManager().addTicket(ChunkTicketType.POST_TELEPORT, group.destination.pos(), TICKET_RADIUS, player.getId());
+            finish(request.source(), player, request.warpName(), request.wp(), world, request.enqueuedNanos());
+        }
+        return done;
+    }
+
+    private void finish(ServerCommandSource source, ServerPlayerEntity player, String warpName, WarpPoint wp, ServerWorld world, long startNanos) {
+        player.teleport(world, wp.x(), wp.y(), wp.z(), wp.yaw(), wp.pitch());
+        WarpMetrics.get().timer(WarpMetrics.Timer.TELEPORT).recordSince(startNanos);
+        WarpMetrics.get().recordWarpUse(warpName.toLowerCase(Locale.ROOT));
+        source.sendFeedback(() -> Text.literal("Teleported to '" + warpName + "' in " + wp.dimensionId() + "."), false);
+    }
+
+    /**
+     * Shows every queued player their current position in the action bar.
+     */
+    private void sendPositions() {
+        int position = 0;
+        for (Group group : groups.values()) {
+            for (Request request : group.requests) {
+                position++;
+                ServerPlayerEntity player = group.destination.world().getServer().getPlayerManager().getPlayer(request.player());
+                if (player != null) {
+                    player.sendMessage(Text.literal("Warp queue position: " + position + "/" + requests.size()), true);
+                }
+            }
+        }
+    }
+
+    /**
+     * Cancels the player's pending teleport, if any.
+     *
+     * @param notify tell the player their teleport was cancelled
+     * @return true if a teleport was pending
+     */
+    public boolean cancel(UUID player, boolean notify) {
+        Request request = requests.remove(player);
+        if (request == null) return false;
+        Group group = request.group();
+        group.requests.remove(request);
+        if (group.requests.isEmpty() && groups.get(group.destination) == group) {
+            groups.remove(group.destination);
+            // a load still in flight releases its own ticket once it completes
+            if (group.state != GroupState.LOADING) releaseTicket(group);
+        }
+        WarpMetrics.get().increment(WarpMetrics.Counter.TELEPORT_CANCELLATIONS);
+        if (notify) {
+            request.source().sendError(Text.literal("[Simply Better Warps] Teleport to '" + request.warpName() + "' cancelled."));
+        }
+        return true;
+    }
+
+    /**
+     * Drops every pending teleport, e.g. when the server stops.
+     */
+    public void cancelAll() {
+        for (UUID player : new ArrayList<>(requests.keySet())) {
+            cancel(player, false);
+        }
+        for (Group group : groups.values()) {
+            releaseTicket(group);
+        }
+        groups.clear();
+    }
+
+    private void releaseTicket(Group group) {
+        if (!group.ticketHeld) return;
+        group.ticketHeld = false;
+        group.destination.world().getChunkManager().removeTicket(WARP_TELEPORT, group.destination.pos(), TICKET_RADIUS, group.destination.pos());
+    }
+
+    /**
+     * Players currently waiting for a teleport.
+     */
+    public int pendingCount() {
+        return requests.size();
+    }
+
+    /**
+     * Destination chunks currently waited on.
+     */
+    public int pendingDestinations() {
+        return groups.size();
+    }
+
+    private enum GroupState {
+        /**
+         * Chunk not requested yet (waiting for chunk-load budget).
+         */
+        WAITING,
+        LOADING,
+        READY
+    }
+
+    private record Destination(ServerWorld world, ChunkPos pos) {
+    }
+
+    /**
+     * Requests sharing a destination chunk, loaded once and teleported in arrival order.
+     */
+    private static final class Group {
+        final Destination destination;
+        final ArrayDeque<Request> requests = new ArrayDeque<>();
+        GroupState state = GroupState.WAITING;
+        boolean ticketHeld;
+        long loadStartNanos;
+
+        Group(Destination destination) {
+            this.destination = destination;
+        }
+    }
+
+    private record Request(ServerCommandSource source, UUID player, String warpName, WarpPoint wp, Group group,
+                           long enqueuedNanos) {
+    }
+}
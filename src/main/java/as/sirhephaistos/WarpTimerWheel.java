@@ -0,0 +1,138 @@
+package as.sirhephaistos;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timer wheel advanced once per server tick. Timeouts are hashed by deadline into a ring of slots and kept in
+ * intrusive doubly linked lists, so scheduling and cancelling are constant time and a tick only visits one slot.
+ * Deadlines further away than one revolution stay in their slot and are skipped until their revolution comes.
+ * Not thread safe; only used on the server thread.
+ *
+ * @param <T> value carried by each timeout
+ */
+final class WarpTimerWheel<T> {
+    /**
+     * Slots per revolution, a power of two: 512 ticks covers about 25 seconds per turn.
+     */
+    private static final int SLOTS = 512;
+    private static final int MASK = SLOTS - 1;
+    private final Timeout<T>[] slots;
+    private final List<T> due = new ArrayList<>();
+    private long now;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    WarpTimerWheel() {
+        slots = (Timeout<T>[]) new Timeout[SLOTS];
+    }
+
+    /**
+     * Schedules {@code value} to expire {@code delayTicks} ticks from now (at least one).
+     */
+    Timeout<T> schedule(T value, long delayTicks) {
+        Timeout<T> timeout = new Timeout<>(this, value, now + Math.max(1, delayTicks));
+        int slot = (int) (timeout.deadline & MASK);
+        timeout.next = slots[slot];
+        if (timeout.next != null) timeout.next.prev = timeout;
+        slots[slot] = timeout;
+        size++;
+        return timeout;
+    }
+
+    /**
+     * Moves the wheel one tick forward and hands every timeout that is due to {@code expired}, removed from the wheel.
+     */
+    void advance(Consumer<T> expired) {
+        now++;
+        // unlinked first, so callbacks may schedule or cancel freely
+        Timeout<T> timeout = slots[(int) (now & MASK)];
+        while (timeout != null) {
+            Timeout<T> next = timeout.next;
+            if (timeout.deadline <= now) {
+                timeout.unlink();
+                due.add(timeout.value);
+            }
+            timeout = next;
+        }
+        try {
+            due.forEach(expired);
+        } finally {
+            due.clear();
+        }
+    }
+
+    /**
+     * Ticks the wheel has advanced since it was created.
+     */
+    long now() {
+        return now;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Drops every timeout.
+     */
+    void clear() {
+        for (int i = 0; i < SLOTS; i++) {
+            for (Timeout<T> t = slots[i]; t != null; t = t.next) t.wheel = null;
+            slots[i] = null;
+        }
+        size = 0;
+    }
+
+    /**
+     * A scheduled value. Cancelling it removes it from the wheel without visiting its slot.
+     */
+    static final class Timeout<T> {
+        private WarpTimerWheel<T> wheel;
+        private final T value;
+        private final long deadline;
+        private Timeout<T> prev;
+        private Timeout<T> next;
+
+        private Timeout(WarpTimerWheel<T> wheel, T value, long deadline) {
+            this.wheel = wheel;
+            this.value = value;
+            this.deadline = deadline;
+        }
+
+        T value() {
+            return value;
+        }
+
+        /**
+         * Ticks left until expiry, 0 once expired or cancelled.
+         */
+        long remainingTicks() {
+            return wheel == null ? 0 : Math.max(0, deadline - wheel.now);
+        }
+
+        /**
+         * Removes the timeout from its wheel. Returns false if it had already expired or been cancelled.
+         */
+        boolean cancel() {
+            if (wheel == null) return false;
+            unlink();
+            return true;
+        }
+
+        private void unlink() {
+            WarpTimerWheel<T> w = wheel;
+            if (prev != null) {
+                prev.next = next;
+            } else {
+                w.slots[(int) (deadline & MASK)] = next;
+            }
+            if (next != null) next.prev = prev;
+            prev = null;
+            next = null;
+            wheel = null;
+            w.size--;
+        }
+    }
+}
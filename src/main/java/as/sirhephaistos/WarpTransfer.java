@@ -0,0 +1,555 @@
+package as.sirhephaistos;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.mojang.brigadier.StringReader;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.Identifier;
+import net.minecraft.world.World;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Bulk import and export of warps for /warpadmin import and /warpadmin export.
+ * Files are streamed one record at a time on a background thread, so memory stays bounded by the batch size
+ * whatever the file size. Imported warps reach {@link WarpManager} in batches applied on the server thread;
+ * the next batch is only submitted once the previous one was applied.
+ * Files live in config/simplybetter/transfer, in the warps.json layout (an object keyed by warp name, or an array
+ * of objects with a "name" field) or as CSV with a name,dimension,x,y,z,yaw,pitch,group header.
+ */
+public final class WarpTransfer {
+    private static final WarpTransfer INSTANCE = new WarpTransfer();
+    private static final Logger LOGGER = LoggerFactory.getLogger("simplybetter-warps");
+    public static final Path DIRECTORY = Path.of("config", "simplybetter", "transfer");
+    /**
+     * Batches grow with the registry (each one copies it, see {@link WarpManager#setWarps}), within these bounds.
+     */
+    private static final int MIN_BATCH = 2_000;
+    private static final int MAX_BATCH = 100_000;
+    private static final long PROGRESS_INTERVAL_MILLIS = 5_000;
+    /**
+     * Invalid records logged one by one per import; the rest are only counted.
+     */
+    private static final int MAX_LOGGED_INVALID = 20;
+    private static final String[] CSV_COLUMNS = {"name", "dimension", "x", "y", "z", "yaw", "pitch", "group"};
+    private static final Executor WORKER = task -> {
+        Thread t = new Thread(task, "simplybetter-warps-transfer");
+        t.setDaemon(true);
+        t.start();
+    };
+    private final AtomicBoolean busy = new AtomicBoolean();
+    /**
+     * The import in progress, so {@link #cancel()} can stop it.
+     */
+    private final AtomicReference<RunningImport> importing = new AtomicReference<>();
+
+    private WarpTransfer() {
+    }
+
+    public static WarpTransfer get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Resolves a file name inside {@link #DIRECTORY}.
+     *
+     * @throws IllegalArgumentException if the name points outside of it
+     */
+    public Path resolve(String fileName) {
+        Path base = DIRECTORY.toAbsolutePath().normalize();
+        Path file = base.resolve(fileName).normalize();
+        if (!file.startsWith(base) || file.equals(base)) {
+            throw new IllegalArgumentException("Files must be inside " + DIRECTORY);
+        }
+        return file;
+    }
+
+    /**
+     * Imports every valid record of the file. With {@link Mode#REPLACE}, warps missing from the file are deleted
+     * once the whole file was read; nothing is deleted if reading fails. A dry run validates and counts only.
+     *
+     * @param progress receives a status line now and then, on the import thread
+     */
+    public CompletableFuture<ImportResult> importWarps(MinecraftServer server, Path file, Mode mode, boolean dryRun,
+                                                       Consumer<String> progress) {
+        // resolved here on the server thread, the import thread only looks them up
+        Map<String, WarpDimension> dimensions = worldDimensions(server);
+        RunningImport task = new RunningImport();
+        run(() -> {
+            try {
+                return runImport(server, file, mode, dryRun, progress, dimensions, task);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, () -> importing.set(task)).whenComplete((result, error) -> {
+            importing.compareAndSet(task, null);
+            if (error != null) task.result.completeExceptionally(error);
+            else task.result.complete(result);
+        });
+        return task.result;
+    }
+
+    /**
+     * Stops the running import, if any: batches not applied yet are dropped and its future fails with a
+     * {@link CancellationException}. Called when the server stops, before the registry shuts down.
+     */
+    public void cancel() {
+        RunningImport task = importing.getAndSet(null);
+        if (task == null) return;
+        task.cancelled = true;
+        CompletableFuture<?> waiting = task.waiting;
+        if (waiting != null) waiting.cancel(false);
+        if (task.result.completeExceptionally(new CancellationException("The server is stopping"))) {
+            LOGGER.warn("[Simply Better Warps] Import cancelled because the server is stopping, warps not applied yet are dropped");
+        }
+    }
+
+    /**
+     * Writes the current warps to the file, through a temp file moved in place once complete.
+     *
+     * @return number of warps written
+     */
+    public CompletableFuture<Integer> exportWarps(Path file, Format format) {
+        return run(() -> {
+            try {
+                return runExport(file, format);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, () -> {
+        });
+    }
+
+    /**
+     * Runs the task on the transfer thread unless another one is running.
+     *
+     * @param started called on the calling thread once the task is sure to run
+     */
+    private <T> CompletableFuture<T> run(Supplier<T> task, Runnable started) {
+        if (!busy.compareAndSet(false, true)) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Another import or export is running"));
+        }
+        started.run();
+        return CompletableFuture.supplyAsync(task, WORKER).whenComplete((r, e) -> busy.set(false));
+    }
+
+    private static Map<String, WarpDimension> worldDimensions(MinecraftServer server) {
+        Map<String, WarpDimension> dimensions = new HashMap<>();
+        for (RegistryKey<World> key : server.getWorldRegistryKeys()) {
+            dimensions.put(key.getValue().toString(), WarpDimension.of(key));
+        }
+        return dimensions;
+    }
+
+    private ImportResult runImport(MinecraftServer server, Path file, Mode mode, boolean dryRun, Consumer<String> progress,
+                                   Map<String, WarpDimension> dimensions, RunningImport task) throws IOException {
+        long start = System.currentTimeMillis();
+        WarpSnapshot before = WarpManager.get().snapshot();
+        Counts counts = new Counts();
+        // names only, to find what REPLACE deletes
+        Set<String> seen = mode == Mode.REPLACE ? new HashSet<>() : null;
+        Map<String, WarpPoint> batch = new HashMap<>();
+        int batchSize = batchSize();
+        CompletableFuture<Void> inFlight = CompletableFuture.completedFuture(null);
+        long lastProgress = start;
+
+        try (RecordReader reader = Format.of(file).open(file)) {
+            RawWarp raw;
+            while ((raw = reader.next()) != null) {
+                if (task.cancelled) throw new CancellationException("The server is stopping");
+                counts.records++;
+                String name = raw.name() == null ? null : raw.name().trim().toLowerCase(Locale.ROOT);
+                WarpDimension dimension = dimension(raw.dimension(), dimensions);
+                String problem = validate(name, raw, dimension);
+                if (problem != null) {
+                    if (counts.invalid++ < MAX_LOGGED_INVALID) {
+                        LOGGER.warn("[Simply Better Warps] Skipping record {} of {}: {}", counts.records, file.getFileName(), problem);
+                    }
+                    continue;
+                }
+                WarpPoint point = new WarpPoint(dimension, raw.x(), raw.y(), raw.z(), raw.yaw(), raw.pitch(), raw.group());
+                if (seen != null) seen.add(name);
+                WarpPoint old = before.get(name);
+                if (old == null) counts.added++;
+                else if (old.equals(point)) counts.unchanged++;
+                else counts.updated++;
+
+                if (!dryRun && !point.equals(old)) {
+                    batch.put(name, point);
+                    if (batch.size() >= batchSize) {
+                        inFlight = submit(server, batch, inFlight, task);
+                        batch = new HashMap<>();
+                        batchSize = batchSize();
+                    }
+                }
+                long now = System.currentTimeMillis();
+                if (now - lastProgress >= PROGRESS_INTERVAL_MILLIS) {
+                    lastProgress = now;
+                    progress.accept("%s %d records (%d invalid)...".formatted(dryRun ? "Checked" : "Imported", counts.records, counts.invalid));
+                }
+            }
+        } finally {
+            // whatever was read before a failure is applied, so the registry matches the progress reported
+            if (!batch.isEmpty() && !task.cancelled) inFlight = submit(server, batch, inFlight, task);
+            task.await(inFlight);
+        }
+
+        if (seen != null) {
+            if (dryRun) {
+                for (String name : before.warps().keySet()) {
+                    if (!seen.contains(name)) counts.removed++;
+                }
+            } else {
+                counts.removed = task.await(server.submit(() -> {
+                    if (task.cancelled) return 0;
+                    Set<String> removals = new HashSet<>(WarpManager.get().snapshot().warps().keySet());
+                    removals.removeAll(seen);
+                    WarpManager.get().applyChanges(Map.of(), removals);
+                    return removals.size();
+                }));
+            }
+        }
+        ImportResult result = new ImportResult(counts.records, counts.added, counts.updated, counts.unchanged,
+                counts.removed, counts.invalid, dryRun, System.currentTimeMillis() - start);
+        LOGGER.info("[Simply Better Warps] {} {}: {}", dryRun ? "Dry run of import from" : "Imported", file, result);
+        return result;
+    }
+
+    /**
+     * Hands a batch to the server thread after the previous one was applied, so at most one waits in memory.
+     */
+    private static CompletableFuture<Void> submit(MinecraftServer server, Map<String, WarpPoint> batch,
+                                                  CompletableFuture<Void> previous, RunningImport task) {
+        task.await(previous);
+        return server.submit(() -> {
+            // a batch still queued when the server stops must not reach the registry after its shutdown
+            if (!task.cancelled) WarpManager.get().setWarps(batch);
+        });
+    }
+
+    private static int batchSize() {
+        return Math.max(MIN_BATCH, Math.min(MAX_BATCH, WarpManager.get().snapshot().size() / 4));
+    }
+
+    /**
+     * The loaded world a record points at, or null if the id is not one.
+     */
+    private static WarpDimension dimension(String id, Map<String, WarpDimension> dimensions) {
+        Identifier parsed = id == null ? null : Identifier.tryParse(id);
+        return parsed == null ? null : dimensions.get(parsed.toString());
+    }
+
+    /**
+     * Reason a record cannot be imported, or null if it is valid.
+     */
+    private static String validate(String name, RawWarp raw, WarpDimension dimension) {
+        if (name == null || name.isEmpty()) return "missing name";
+        if (!isWord(name)) return "invalid name '" + name + "'";
+        if (raw.group() != null && !raw.group().isBlank() && !isWord(raw.group().trim())) {
+            return "invalid group '" + raw.group() + "' for '" + name + "'";
+        }
+        if (raw.dimension() == null) return "missing dimension for '" + name + "'";
+        if (dimension == null) return "unknown dimension '" + raw.dimension() + "' for '" + name + "'";
+        if (!Double.isFinite(raw.x()) || !Double.isFinite(raw.y()) || !Double.isFinite(raw.z())
+                || !Float.isFinite(raw.yaw()) || !Float.isFinite(raw.pitch())) {
+            return "invalid coordinates for '" + name + "'";
+        }
+        return null;
+    }
+
+    /**
+     * True if the value could be typed as a single command word, as warp and group names are.
+     */
+    private static boolean isWord(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (!StringReader.isAllowedInUnquotedString(value.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    private static int runExport(Path file, Format format) throws IOException {
+        Map<String, WarpPoint> warps = WarpManager.get().snapshot().warps();
+        Files.createDirectories(file.getParent());
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(tmp)) {
+            if (format == Format.CSV) {
+                writer.write(String.join(",", CSV_COLUMNS));
+                writer.write('\n');
+                for (var entry : warps.entrySet()) {
+                    WarpPoint wp = entry.getValue();
+                    writer.write(csvField(entry.getKey()) + "," + csvField(wp.dimensionId()) + "," + wp.x() + "," + wp.y()
+                            + "," + wp.z() + "," + wp.yaw() + "," + wp.pitch() + "," + (wp.group() == null ? "" : wp.group()) + "\n");
+                }
+            } else {
+                JsonWriter json = new JsonWriter(writer);
+                json.setIndent("  ");
+                json.beginObject();
+                for (var entry : warps.entrySet()) {
+                    WarpPoint wp = entry.getValue();
+                    json.name(entry.getKey()).beginObject()
+                            .name("dimension").value(wp.dimensionId())
+                            .name("x").value(wp.x())
+                            .name("y").value(wp.y())
+                            .name("z").value(wp.z())
+                            .name("yaw").value(wp.yaw())
+                            .name("pitch").value(wp.pitch());
+                    if (wp.group() != null) json.name("group").value(wp.group());
+                    json.endObject();
+                }
+                json.endObject();
+                json.flush();
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        LOGGER.info("[Simply Better Warps] Exported {} warps to {}", warps.size(), file);
+        return warps.size();
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) return value;
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * What an import does with warps that are not in the file.
+     */
+    public enum Mode {
+        /**
+         * Keep them.
+         */
+        MERGE,
+        /**
+         * Delete them, so the registry ends up holding exactly the file.
+         */
+        REPLACE
+    }
+
+    public enum Format {
+        JSON,
+        CSV;
+
+        /**
+         * Format of a file, from its extension; JSON unless it ends with .csv.
+         */
+        public static Format of(Path file) {
+            return file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv") ? CSV : JSON;
+        }
+
+        RecordReader open(Path file) throws IOException {
+            BufferedReader reader = Files.newBufferedReader(file);
+            try {
+                return this == CSV ? new CsvRecordReader(reader) : new JsonRecordReader(reader);
+            } catch (IOException | RuntimeException e) {
+                reader.close();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Outcome of an import, counted in records.
+     */
+    public record ImportResult(long records, long added, long updated, long unchanged, long removed, long invalid,
+                               boolean dryRun, long millis) {
+        @Override
+        public String toString() {
+            return "%d records, %d added, %d updated, %d unchanged, %d removed, %d invalid in %d ms"
+                    .formatted(records, added, updated, unchanged, removed, invalid, millis);
+        }
+    }
+
+    private static final class Counts {
+        long records, added, updated, unchanged, removed, invalid;
+    }
+
+    /**
+     * Cancellation state of one import, shared by the import thread and the server thread.
+     */
+    private static final class RunningImport {
+        final CompletableFuture<ImportResult> result = new CompletableFuture<>();
+        volatile boolean cancelled;
+        /**
+         * Server thread task the import thread is blocked on, released by {@link WarpTransfer#cancel()}.
+         */
+        volatile CompletableFuture<?> waiting;
+
+        /**
+         * Waits for a task handed to the server thread. Once cancelled, the server may never run it again.
+         */
+        <T> T await(CompletableFuture<T> future) {
+            waiting = future;
+            try {
+                if (cancelled) future.cancel(false);
+                return future.join();
+            } finally {
+                waiting = null;
+            }
+        }
+    }
+
+    /**
+     * A record as read from the file, before validation. Missing numbers are NaN.
+     */
+    private record RawWarp(String name, String dimension, double x, double y, double z, float yaw, float pitch, String group) {
+    }
+
+    private interface RecordReader extends Closeable {
+        /**
+         * Next record, or null at the end of the file.
+         *
+         * @throws IOException if the file is malformed, which ends the import
+         */
+        RawWarp next() throws IOException;
+    }
+
+    private static final class JsonRecordReader implements RecordReader {
+        private final JsonReader json;
+        private final boolean keyed;
+        private long index;
+
+        JsonRecordReader(Reader reader) throws IOException {
+            json = new JsonReader(reader);
+            keyed = json.peek() == JsonToken.BEGIN_OBJECT;
+            if (keyed) json.beginObject();
+            else json.beginArray();
+        }
+
+        @Override
+        public RawWarp next() throws IOException {
+            index++;
+            try {
+                if (!json.hasNext()) return null;
+                String name = keyed ? json.nextName() : null;
+                String dimension = null;
+                String group = null;
+                double x = Double.NaN, y = Double.NaN, z = Double.NaN, yaw = 0, pitch = 0;
+                json.beginObject();
+                while (json.hasNext()) {
+                    switch (json.nextName()) {
+                        case "name" -> name = json.nextString();
+                        case "dimension" -> dimension = json.nextString();
+                        case "x" -> x = json.nextDouble();
+                        case "y" -> y = json.nextDouble();
+                        case "z" -> z = json.nextDouble();
+                        case "yaw" -> yaw = json.nextDouble();
+                        case "pitch" -> pitch = json.nextDouble();
+                        case "group" -> group = json.nextString();
+                        default -> json.skipValue();
+                    }
+                }
+                json.endObject();
+                return new RawWarp(name, dimension, x, y, z, (float) yaw, (float) pitch, group);
+            } catch (IllegalStateException | NumberFormatException e) {
+                throw new IOException("Malformed record " + index + ": " + e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            json.close();
+        }
+    }
+
+    private static final class CsvRecordReader implements RecordReader {
+        private final BufferedReader reader;
+        /**
+         * Column of each of {@link #CSV_COLUMNS}, or -1 if the file does not have it.
+         */
+        private final int[] columns = new int[CSV_COLUMNS.length];
+
+        CsvRecordReader(BufferedReader reader) throws IOException {
+            this.reader = reader;
+            String header = reader.readLine();
+            if (header == null) throw new IOException("Empty CSV file");
+            List<String> names = split(header);
+            for (int i = 0; i < CSV_COLUMNS.length; i++) {
+                columns[i] = names.indexOf(CSV_COLUMNS[i]);
+            }
+            if (columns[0] < 0 || columns[1] < 0) throw new IOException("CSV header needs at least name and dimension");
+        }
+
+        @Override
+        public RawWarp next() throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+                if (line == null) return null;
+            } while (line.isBlank());
+            List<String> fields = split(line);
+            return new RawWarp(field(fields, 0), field(fields, 1), number(fields, 2, Double.NaN), number(fields, 3, Double.NaN),
+                    number(fields, 4, Double.NaN), (float) number(fields, 5, 0), (float) number(fields, 6, 0), field(fields, 7));
+        }
+
+        private String field(List<String> fields, int column) {
+            int i = columns[column];
+            return i >= 0 && i < fields.size() ? fields.get(i) : null;
+        }
+
+        private double number(List<String> fields, int column, double missing) {
+            String value = field(fields, column);
+            if (value == null || value.isBlank()) return missing;
+            try {
+                return Double.parseDouble(value.trim());
+            } catch (NumberFormatException e) {
+                return Double.NaN;
+            }
+        }
+
+        /**
+         * Splits one CSV line; fields may be quoted, with "" for a quote. Quoted line breaks are not supported.
+         */
+        private static List<String> split(String line) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c != '"') field.append(c);
+                    else if (i + 1 < line.length() && line.charAt(i + 1) == '"') field.append(line.charAt(++i));
+                    else quoted = false;
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package as.sirhephaistos;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Trigram index over warp names for fuzzy search and "did you mean" suggestions.
+ * Names are padded ("  name ") and split into overlapping three-character grams; similarity is the Jaccard
+ * index of the two gram sets. A search only reads the posting lists of its rarest grams (a match above the
+ * threshold must share at least one of them), so its cost follows the matches, not the catalog size.
+ * Kept in sync by listening to the registry.
+ */
+public final class WarpTrigramIndex implements WarpChangeListener {
+    private static final WarpTrigramIndex INSTANCE = new WarpTrigramIndex();
+    /**
+     * Minimum similarity for a name to be returned. Low enough that a swapped pair of letters in a short name
+     * (e.g. "spwan" for "spawn", 0.2) still matches.
+     */
+    private static final double MIN_SIMILARITY = 0.2;
+    /**
+     * Map<trigram, names containing it>
+     */
+    private final Map<String, Set<String>> postings = new HashMap<>();
+    /**
+     * Map<name, number of distinct grams>
+     */
+    private final Map<String, Integer> gramCounts = new HashMap<>();
+
+    /**
+     * The server uses {@link #get()}; separate instances exist for benchmarks.
+     */
+    WarpTrigramIndex() {
+    }
+
+    public static WarpTrigramIndex get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Names similar to {@code text}, most similar first.
+     *
+     * @param limit  maximum number of results
+     * @param filter only names passing it are returned, e.g. a permission check; tested in rank order, at most
+     *               until {@code limit} names passed
+     */
+    public synchronized List<Match> search(String text, int limit, Predicate<String> filter) {
+        Set<String> query = grams(text.trim().toLowerCase(Locale.ROOT));
+        if (query.isEmpty() || limit <= 0) return List.of();
+        // similarity <= shared / |query|, so a match shares at least this many grams with the query
+        int required = Math.max(1, (int) Math.ceil(MIN_SIMILARITY * query.size()));
+        List<Set<String>> lists = new ArrayList<>();
+        for (String gram : query) {
+            lists.add(postings.getOrDefault(gram, Set.of()));
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+
+        // pigeonhole: a name sharing `required` grams shares one of the (size - required + 1) rarest;
+        // shared grams are counted from the posting lists, without rebuilding any name's grams
+        int scanned = lists.size() - required + 1;
+        Map<String, int[]> shared = new HashMap<>();
+        for (int i = 0; i < scanned; i++) {
+            for (String name : lists.get(i)) {
+                shared.computeIfAbsent(name, n -> new int[1])[0]++;
+            }
+        }
+
+        List<Match> ranked = new ArrayList<>();
+        for (var entry : shared.entrySet()) {
+            String name = entry.getKey();
+            int common = entry.getValue()[0];
+            for (int i = scanned; i < lists.size(); i++) {
+                if (lists.get(i).contains(name)) common++;
+            }
+            double similarity = (double) common / (query.size() + gramCounts.get(name) - common);
+            if (similarity >= MIN_SIMILARITY) ranked.add(new Match(name, similarity));
+        }
+        // equal scores: the name closest in length to what was typed first
+        int typed = text.trim().length();
+        ranked.sort(Comparator.comparingDouble(Match::similarity).reversed()
+                .thenComparingInt(m -> Math.abs(m.name().length() - typed))
+                .thenComparing(Match::name));
+
+        List<Match> result = new ArrayList<>();
+        for (Match match : ranked) {
+            if (result.size() >= limit) break;
+            if (filter.test(match.name())) result.add(match);
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized void onWarpSet(String name, WarpPoint previous, WarpPoint point) {
+        // an overwrite keeps the name, so its grams are already indexed
+        if (previous == null) add(name);
+    }
+
+    @Override
+    public synchronized void onWarpRemoved(String name, WarpPoint point) {
+        gramCounts.remove(name);
+        for (String gram : grams(name)) {
+            Set<String> names = postings.get(gram);
+            if (names != null && names.remove(name) && names.isEmpty()) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void onReload(WarpSnapshot snapshot) {
+        postings.clear();
+        gramCounts.clear();
+        snapshot.warps().keySet().forEach(this::add);
+    }
+
+    private void add(String name) {
+        Set<String> grams = grams(name);
+        gramCounts.put(name, grams.size());
+        for (String gram : grams) {
+            postings.computeIfAbsent(gram, g -> new HashSet<>()).add(name);
+        }
+    }
+
+    private static Set<String> grams(String name) {
+        if (name.isEmpty()) return Set.of();
+        String padded = "  " + name + " ";
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    /**
+     * A search result.
+     *
+     * @param similarity between 0 (nothing in common) and 1 (same grams)
+     */
+    public record Match(String name, double similarity) {
+    }
+}